@@ -43,4 +43,12 @@ public class Environment {
     public static Path getDeckFilePath() {
         return getEnvironmentalPath("DECK_FILES");
     }
+
+    /**
+     * Whether to seed random choices from the SHA-256 deck digest that was used before decks had fingerprints, so that
+     * previously generated decks come out the same.
+     */
+    public static boolean useLegacyDeckDigest() {
+        return Boolean.parseBoolean(System.getenv("LEGACY_DECK_DIGEST"));
+    }
 }
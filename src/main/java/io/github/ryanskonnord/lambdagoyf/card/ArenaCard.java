@@ -34,6 +34,8 @@ import io.github.ryanskonnord.lambdagoyf.deck.ArenaDeckEntry;
 import io.github.ryanskonnord.lambdagoyf.deck.ArenaVersionId;
 import io.github.ryanskonnord.util.MapCollectors;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
@@ -177,10 +179,28 @@ public final class ArenaCard implements CardVersion, Comparable<ArenaCard> {
         return card.getMainName();
     }
 
-    private transient ArenaDeckEntry deckEntry;
+    /*
+     * The deck entry's name depends on the card's faces, which don't exist yet when this object is constructed, so
+     * it is created on first use. If threads race to create it, all of them return whichever instance is stored first.
+     */
+    private volatile ArenaDeckEntry deckEntry;
+
+    private static final VarHandle DECK_ENTRY;
+
+    static {
+        try {
+            DECK_ENTRY = MethodHandles.lookup().findVarHandle(ArenaCard.class, "deckEntry", ArenaDeckEntry.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public ArenaDeckEntry getDeckEntry() {
-        return (deckEntry != null) ? deckEntry : (deckEntry = new ArenaDeckEntry(this));
+        ArenaDeckEntry entry = deckEntry;
+        if (entry != null) return entry;
+        entry = new ArenaDeckEntry(this);
+        ArenaDeckEntry witness = (ArenaDeckEntry) DECK_ENTRY.compareAndExchange(this, null, entry);
+        return witness != null ? witness : entry;
     }
 
     @Override
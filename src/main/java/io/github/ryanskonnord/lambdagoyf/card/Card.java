@@ -21,6 +21,8 @@ package io.github.ryanskonnord.lambdagoyf.card;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import io.github.ryanskonnord.lambdagoyf.card.field.CardLayout;
 import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
 import io.github.ryanskonnord.lambdagoyf.scryfall.ScryfallCardEntry;
@@ -29,13 +31,25 @@ import io.github.ryanskonnord.util.MapCollectors;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * A card, with all of its faces and editions.
+ * <p>
+ * A card and everything reachable from it is safe to share between threads once the {@link Spoiler} that contains
+ * it is published. Derived values are computed in a constructor and kept in final fields wherever possible. The few
+ * values that a card assigns to its faces or editions after constructing them are written before this constructor
+ * returns, so they are published along with the card's final fields. Values that the spoiler assigns later are
+ * volatile, and values that can only be derived after the spoiler is built are initialized at most once with a
+ * volatile compare-and-set.
+ */
 public final class Card extends ScryfallEntity
         implements CardIdentity, Comparable<Card> {
 
@@ -57,23 +71,29 @@ public final class Card extends ScryfallEntity
         }
 
         private ImmutableList<CardFace> getFaces() {
-            List<List<ScryfallCardFace>> editionFaces = elements.stream()
-                    .map((ScryfallCardEntry entry) -> entry.getFaceStream().collect(ImmutableList.toImmutableList()))
-                    .collect(ImmutableList.toImmutableList());
-            int[] distinctSizes = editionFaces.stream().mapToInt(Collection::size).distinct().toArray();
-            if (distinctSizes.length != 1) {
-                throw new ScryfallParsingException();
+            int faceCount = getFaceCount(elements.get(0));
+            for (ScryfallCardEntry entry : elements) {
+                if (getFaceCount(entry) != faceCount) {
+                    throw new ScryfallParsingException();
+                }
             }
-            return IntStream.range(0, distinctSizes[0])
+            return IntStream.range(0, faceCount)
                     .mapToObj((int faceIndex) -> {
-                        Collection<ScryfallCardFace> faceData = editionFaces.stream()
-                                .map((List<ScryfallCardFace> list) -> list.get(faceIndex))
-                                .collect(ImmutableList.toImmutableList());
-                        return new CardFace(factory, Card.this, faceIndex, faceData);
+                        Collection<ScryfallCardFace> faceData = Lists.transform(elements,
+                                (ScryfallCardEntry entry) -> getFace(entry, faceIndex));
+                        return new CardFace(factory, Card.this, faceIndex, faceData, editions);
                     })
                     .collect(ImmutableList.toImmutableList());
         }
 
+        private int getFaceCount(ScryfallCardEntry entry) {
+            return entry.getCardFaces().map(List::size).orElse(1);
+        }
+
+        private ScryfallCardFace getFace(ScryfallCardEntry entry, int faceIndex) {
+            return entry.getCardFaces().<ScryfallCardFace>map(faces -> faces.get(faceIndex)).orElse(entry);
+        }
+
         private ImmutableList<CardEdition> getEditions() {
             boolean isStrict = true;
             return elements.stream()
@@ -108,6 +128,18 @@ public final class Card extends ScryfallEntity
     private final CardLegality legalities;
     private final boolean isReserved;
     private final boolean hasContentWarning;
+    private final OptionalLong edhrecRank;
+
+    private final String mainName;
+    private final TypeLine mainTypeLine;
+    private final boolean isExtra;
+    private final boolean isFunny;
+    private final ImmutableList<String> allNames;
+
+    /*
+     * Assigned by the spoiler that contains this card, before the spoiler is published. See SortKeys.
+     */
+    private volatile long sortKey = SortKeys.UNASSIGNED;
 
     public Card(CardFactory factory, Collection<ScryfallCardEntry> entries) {
         ScryfallCardBuilder builder = new ScryfallCardBuilder(factory, entries);
@@ -115,11 +147,12 @@ public final class Card extends ScryfallEntity
         name = builder.getCommon(ScryfallCardEntry::getName);
         scryfallId = builder.getCommon(ScryfallCardEntry::getOracleId);
 
-        faces = builder.getFaces();
         editions = builder.getEditions();
+        faces = builder.getFaces();
         illustrations = editions.stream().collect(MapCollectors.<CardEdition>collecting()
                 .indexing(CardEdition::getIllustration)
                 .grouping().toImmutableListMultimap());
+        assignChronology();
 
         layout = Word.of(CardLayout.class, builder.getCommon(ScryfallCardEntry::getLayout));
         colors = faces.stream().flatMap((CardFace f) -> f.getColors().stream()).collect(ColorSet.toColorSet());
@@ -128,8 +161,51 @@ public final class Card extends ScryfallEntity
         legalities = factory.getLegalityFactory().merge(editions.stream().map(CardEdition::getCardLegality));
         isReserved = builder.getCommon(ScryfallCardEntry::isReserved);
         hasContentWarning = builder.getCommonIfPresent(ScryfallCardEntry::getContentWarning).orElse(false);
+        edhrecRank = entries.stream()
+                .map(ScryfallCardEntry::getEdhrecRank)
+                .filter(OptionalLong::isPresent)
+                .mapToLong(OptionalLong::getAsLong)
+                .min();
+        builder.reportInconsistencies(this);
+
+        mainName = getMainFace().map(CardFace::getName).orElse(name);
+        mainTypeLine = buildMainTypeLine();
+        isExtra = layout.is(CardLayout.ART_SERIES)
+                || editions.stream().anyMatch(v -> v.getExpansion().getType().is(ExpansionType.TOKEN));
+        isFunny = editions.stream().allMatch(e -> e.getExpansion().getType().is(ExpansionType.FUNNY));
+        allNames = Stream.concat(Stream.of(name),
+                        editions.stream()
+                                .flatMap((CardEdition e) -> e.getFaces().stream())
+                                .flatMap((CardEditionFace f) -> Stream.of(f.getPrintedName(), f.getFlavorName())
+                                        .flatMap(Optional::stream)))
+                .distinct()
+                .collect(ImmutableList.toImmutableList());
     }
 
+    private TypeLine buildMainTypeLine() {
+        TypeLine firstTypeLine = faces.get(0).getTypeLine();
+        return !layout.is(CardLayout.SPLIT) ? firstTypeLine
+                : firstTypeLine.equals(faces.get(1).getTypeLine()) ? firstTypeLine
+                : TypeLine.compose(faces.stream().map(CardFace::getTypeLine).collect(Collectors.toList()));
+    }
+
+    /*
+     * Precompute each edition's position among the card's releases and the debut of its illustration, so that
+     * questions about reprints don't have to scan the other editions. Relies on editions being sorted by release
+     * date first.
+     */
+    private void assignChronology() {
+        Map<CardIllustration, CardEdition> debuts = Maps.newHashMapWithExpectedSize(illustrations.keySet().size());
+        int releaseRank = 0;
+        for (int i = 0; i < editions.size(); i++) {
+            CardEdition edition = editions.get(i);
+            if (i > 0 && editions.get(i - 1).getReleaseDate().isBefore(edition.getReleaseDate())) {
+                releaseRank = i;
+            }
+            CardEdition debut = debuts.computeIfAbsent(edition.getIllustration(), k -> edition);
+            edition.assignChronology(releaseRank, debut);
+        }
+    }
 
     @Override
     public UUID getScryfallId() {
@@ -146,14 +222,11 @@ public final class Card extends ScryfallEntity
     }
 
     public String getMainName() {
-        return getMainFace().map(CardFace::getName).orElse(name);
+        return mainName;
     }
 
     public TypeLine getMainTypeLine() {
-        TypeLine firstTypeLine = faces.get(0).getTypeLine();
-        return !layout.is(CardLayout.SPLIT) ? firstTypeLine
-                : firstTypeLine.equals(faces.get(1).getTypeLine()) ? firstTypeLine
-                : TypeLine.compose(faces.stream().map(CardFace::getTypeLine).collect(Collectors.toList()));
+        return mainTypeLine;
     }
 
     public ImmutableList<CardEdition> getEditions() {
@@ -193,12 +266,11 @@ public final class Card extends ScryfallEntity
     }
 
     public boolean isExtra() {
-        return getLayout().is(CardLayout.ART_SERIES)
-                || editions.stream().anyMatch(v -> v.getExpansion().getType().is(ExpansionType.TOKEN));
+        return isExtra;
     }
 
     public boolean isFunny() {
-        return editions.stream().allMatch(e -> e.getExpansion().getType().is(ExpansionType.FUNNY));
+        return isFunny;
     }
 
     public boolean isReserved() {
@@ -209,6 +281,13 @@ public final class Card extends ScryfallEntity
         return hasContentWarning;
     }
 
+    /**
+     * @return the card's popularity rank on EDHREC, where 1 is the most popular, if it is ranked
+     */
+    public OptionalLong getEdhrecRank() {
+        return edhrecRank;
+    }
+
     /**
      * Return all names that have been printed on an edition of the card. This includes names localized in other
      * languages, and "flavor names" such as the Godzilla cards in Ikoria.
@@ -219,17 +298,27 @@ public final class Card extends ScryfallEntity
      * @return a stream containing all names that have been printed on an edition of the card
      */
     public Stream<String> getAllNames() {
-        return Stream.concat(Stream.of(name),
-                        editions.stream()
-                                .flatMap((CardEdition e) -> e.getFaces().stream())
-                                .flatMap((CardEditionFace f) -> Stream.of(f.getPrintedName(), f.getFlavorName())
-                                        .flatMap(Optional::stream)))
-                .distinct();
+        return allNames.stream();
+    }
+
+    /**
+     * @return this card's position in its spoiler's ordering of all cards, or -1 if it is not in a spoiler
+     */
+    public int getOrdinal() {
+        return SortKeys.getOrdinal(sortKey);
+    }
+
+    void assignSortKey(long sortKey) {
+        this.sortKey = sortKey;
     }
 
     @Override
     public int compareTo(Card that) {
-        if (this == that || this.scryfallId.equals(that.scryfallId)) return 0;
+        if (this == that) return 0;
+        long thisKey = this.sortKey;
+        long thatKey = that.sortKey;
+        if (SortKeys.areComparable(thisKey, thatKey)) return Long.compare(thisKey, thatKey);
+        if (this.scryfallId.equals(that.scryfallId)) return 0;
         return this.editions.get(0).compareTo(that.editions.get(0));
     }
 
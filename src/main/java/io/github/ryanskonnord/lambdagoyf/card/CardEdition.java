@@ -19,10 +19,10 @@
 
 package io.github.ryanskonnord.lambdagoyf.card;
 
-import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.github.ryanskonnord.lambdagoyf.card.field.BorderColor;
 import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
@@ -41,7 +41,6 @@ import io.github.ryanskonnord.util.MapCollectors;
 
 import java.time.LocalDate;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -74,12 +73,24 @@ public final class CardEdition extends ScryfallEntity
     private final boolean isFullArt;
 
     private final ImmutableSet<Finish> paperFinishes;
+    private final ImmutableMap<Finish, PaperCard> paperCards;
     private final MtgoCard mtgoNonfoil;
     private final MtgoCard mtgoFoil;
     private final ArenaCard arenaCard;
 
     private final ImmutableSet<UUID> relatedParts;
 
+    /*
+     * Assigned by the spoiler that contains this edition, before the spoiler is published. See SortKeys.
+     */
+    private volatile long sortKey = SortKeys.UNASSIGNED;
+
+    /*
+     * Assigned once by the parent card's constructor.
+     */
+    private int releaseRank;
+    private CardEdition illustrationDebut;
+
     CardEdition(CardFactory factory, Card parentCard, ScryfallCardEntry entry) {
         parent = Objects.requireNonNull(parentCard);
         scryfallId = entry.getId();
@@ -90,7 +101,7 @@ public final class CardEdition extends ScryfallEntity
                 .orElseThrow(() -> new Card.ScryfallParsingException("Product code not matched: " + entry.getSet()));
         language = Word.of(Language.class, entry.getLang());
         rarity = Word.of(Rarity.class, entry.getRarity());
-        collectorNumber = CollectorNumber.parse(entry.getCollectorNumber());
+        collectorNumber = factory.getCollectorNumber(entry.getCollectorNumber());
         releaseDate = entry.getReleasedAt();
         isInBooster = entry.isBooster();
         cardLegality = buildCardLegality(factory.getLegalityFactory(), entry.getLegalities());
@@ -103,6 +114,7 @@ public final class CardEdition extends ScryfallEntity
         isFullArt = entry.isFullArt();
 
         paperFinishes = factory.cacheFinishSet(buildPaperFinishes(entry));
+        paperCards = Maps.immutableEnumMap(Maps.toMap(paperFinishes, finish -> new PaperCard(this, finish)));
         arenaCard = factory.getArenaFactory().create(this, entry.getArenaId()).orElse(null);
 
         MtgoCard[] mtgoCards = buildMtgoCards(entry, factory.getMtgoFixes());
@@ -264,11 +276,11 @@ public final class CardEdition extends ScryfallEntity
     }
 
     public Stream<PaperCard> getPaperCards() {
-        return paperFinishes.stream().map(finish -> new PaperCard(CardEdition.this, finish));
+        return paperCards.values().stream();
     }
 
     public Optional<PaperCard> getPaperCard(Finish finish) {
-        return paperFinishes.contains(finish) ? Optional.of(new PaperCard(this, finish)) : Optional.empty();
+        return Optional.ofNullable(paperCards.get(finish));
     }
 
     public Stream<String> getArtists() {
@@ -281,30 +293,53 @@ public final class CardEdition extends ScryfallEntity
         return getArtists().anyMatch(artist::equals);
     }
 
+    /**
+     * @return this edition's position in its spoiler's ordering of all editions, or -1 if it is not in a spoiler
+     */
+    public int getOrdinal() {
+        return SortKeys.getOrdinal(sortKey);
+    }
+
+    void assignSortKey(long sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    void assignChronology(int releaseRank, CardEdition illustrationDebut) {
+        this.releaseRank = releaseRank;
+        this.illustrationDebut = Objects.requireNonNull(illustrationDebut);
+    }
+
     public ImmutableSet<UUID> getRelatedParts() {
         return relatedParts;
     }
 
+    /**
+     * @return the number of the card's editions that were released before this one
+     */
+    public int getReleaseRank() {
+        return releaseRank;
+    }
+
     public boolean isReprint() {
-        CardEdition firstEdition = parent.getEditions().get(0);
-        return !firstEdition.equals(this) && firstEdition.getReleaseDate().isBefore(getReleaseDate());
+        return releaseRank > 0;
     }
 
-    public Iterable<CardEdition> getEarlierReleases() {
-        return () -> new AbstractIterator<>() {
-            private final Iterator<CardEdition> allEditions = parent.getEditions().iterator();
+    public ImmutableList<CardEdition> getEarlierReleases() {
+        return parent.getEditions().subList(0, releaseRank);
+    }
 
-            @Override
-            protected CardEdition computeNext() {
-                if (allEditions.hasNext()) {
-                    CardEdition next = allEditions.next();
-                    if (next.getReleaseDate().isBefore(CardEdition.this.getReleaseDate())) {
-                        return next;
-                    }
-                }
-                return endOfData();
-            }
-        };
+    /**
+     * @return the card's first edition with the same illustration as this one
+     */
+    public CardEdition getIllustrationDebut() {
+        return illustrationDebut;
+    }
+
+    /**
+     * @return whether no earlier release of the card has the same illustration as this one
+     */
+    public boolean isIllustrationDebut() {
+        return !illustrationDebut.getReleaseDate().isBefore(releaseDate);
     }
 
     public boolean isGameCard() {
@@ -314,7 +349,11 @@ public final class CardEdition extends ScryfallEntity
 
     @Override
     public int compareTo(CardEdition that) {
-        if (this == that || this.scryfallId.equals(that.scryfallId)) return 0;
+        if (this == that) return 0;
+        long thisKey = this.sortKey;
+        long thatKey = that.sortKey;
+        if (SortKeys.areComparable(thisKey, thatKey)) return Long.compare(thisKey, thatKey);
+        if (this.scryfallId.equals(that.scryfallId)) return 0;
         int cmp = this.releaseDate.compareTo(that.releaseDate);
         if (cmp != 0) return cmp;
         cmp = this.expansion.compareTo(that.expansion);
@@ -34,32 +34,43 @@ public final class CardFace implements Comparable<CardFace> {
 
     private final Card parent;
     private final int faceIndex;
+    private final ImmutableList<CardEditionFace> editions;
 
     private final String name;
     private final Optional<String> manaCost;
     private final TypeLine typeLine;
     private final String oracleText;
+    private final ImmutableList<String> oracleTextParagraphs;
     private final ColorSet colors;
     private final Optional<ColorSet> colorIndicator;
     private final Optional<WrittenNumber> power;
     private final Optional<WrittenNumber> toughness;
     private final Optional<WrittenNumber> loyalty;
 
-    CardFace(CardFactory factory, Card parent, int faceIndex, Collection<ScryfallCardFace> data) {
+    /**
+     * @param editions the parent card's editions, which must already be constructed
+     */
+    CardFace(CardFactory factory, Card parent, int faceIndex, Collection<ScryfallCardFace> data,
+             List<CardEdition> editions) {
         Preconditions.checkArgument(faceIndex >= 0);
         this.parent = Objects.requireNonNull(parent);
         this.faceIndex = faceIndex;
+        this.editions = editions.stream()
+                .map((CardEdition v) -> v.getFaces().get(faceIndex))
+                .collect(ImmutableList.toImmutableList());
 
         RedundantBuilder<ScryfallCardFace> builder = new RedundantBuilder<>(data);
         name = builder.getCommon(ScryfallCardFace::getName);
         manaCost = factory.cacheManaCost(builder.getCommon(ScryfallCardFace::getManaCost).filter(((Predicate<String>) String::isEmpty).negate()));
-        typeLine = builder.getCommon(ScryfallCardFace::getTypeLine).map(TypeLine::parse).map(factory::getCachedTypeLine).orElse(TypeLine.EMPTY);
+        typeLine = builder.getCommon(ScryfallCardFace::getTypeLine).map(factory::getTypeLine).orElse(TypeLine.EMPTY);
         oracleText = builder.getCommon(ScryfallCardFace::getOracleText).orElseThrow(Card.ScryfallParsingException::new);
+        oracleTextParagraphs = ImmutableList.copyOf(Splitter.on('\n').split(oracleText));
         colors = builder.getCommon(f -> f.getColors().map(ColorSet::fromStrings)).orElse(ColorSet.of());
         colorIndicator = builder.getCommon(f -> f.getColorIndicator().map(ColorSet::fromStrings));
-        power = builder.getCommon(ScryfallCardFace::getPower).map(WrittenNumber::create);
-        toughness = builder.getCommon(ScryfallCardFace::getToughness).map(WrittenNumber::create);
-        loyalty = builder.getCommon(ScryfallCardFace::getLoyalty).map(WrittenNumber::create);
+        power = builder.getCommon(ScryfallCardFace::getPower).map(factory::getWrittenNumber);
+        toughness = builder.getCommon(ScryfallCardFace::getToughness).map(factory::getWrittenNumber);
+        loyalty = builder.getCommon(ScryfallCardFace::getLoyalty).map(factory::getWrittenNumber);
+        builder.reportInconsistencies(name);
     }
 
     public Card getParent() {
@@ -70,13 +81,8 @@ public final class CardFace implements Comparable<CardFace> {
         return faceIndex;
     }
 
-    private transient ImmutableList<CardEditionFace> editions;
-
     public ImmutableList<CardEditionFace> getEditions() {
-        return (editions != null) ? editions : (editions =
-                parent.getEditions().stream()
-                        .map((CardEdition v) -> v.getFaces().get(faceIndex))
-                        .collect(ImmutableList.toImmutableList()));
+        return editions;
     }
 
     public String getName() {
@@ -96,7 +102,7 @@ public final class CardFace implements Comparable<CardFace> {
     }
 
     public List<String> getOracleTextParagraphs() {
-        return Splitter.on('\n').splitToList(getOracleText());
+        return oracleTextParagraphs;
     }
 
     public ColorSet getColors() {
@@ -21,6 +21,7 @@ package io.github.ryanskonnord.lambdagoyf.card;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import io.github.ryanskonnord.lambdagoyf.card.field.Finish;
@@ -29,10 +30,13 @@ import io.github.ryanskonnord.util.MapCollectors;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public final class CardFactory {
@@ -44,6 +48,8 @@ public final class CardFactory {
     private final CardLegality.Factory legalityFactory = new CardLegality.Factory();
     private final MtgoIdFix.Registry mtgoFixes = MtgoIdFix.loadFromResources();
     private final TypeLineCache typeLineCache = new TypeLineCache();
+    private final ImmutableMap<String, CollectorNumber> collectorNumbers;
+    private final Map<String, WrittenNumber> writtenNumbers = new ConcurrentHashMap<>();
     private final Cache<ImmutableSet<Finish>, ImmutableSet<Finish>> finishSetCache = CacheBuilder.newBuilder()
             .maximumSize(9).build();
     private final Cache<String, Optional<String>> manaCostCache = CacheBuilder.newBuilder()
@@ -54,14 +60,24 @@ public final class CardFactory {
         this.entries = entries.stream().collect(MapCollectors.<ScryfallCardEntry>collecting()
                 .indexing(ScryfallCardEntry::getOracleId)
                 .grouping().toImmutableListMultimap());
+        this.collectorNumbers = CollectorNumber.internAll(this.entries.values().stream()
+                .map(ScryfallCardEntry::getCollectorNumber)
+                .collect(Collectors.toList()));
         this.arenaFactory = new ArenaCard.Factory(ArenaIdFix.loadFromResources(), this.expansions);
     }
 
     public Spoiler createSpoiler() {
-        List<Card> parsed = entries.asMap().values().parallelStream()
+        return createSpoiler(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool on which to parse cards and build the spoiler's indexes
+     */
+    public Spoiler createSpoiler(ForkJoinPool pool) {
+        List<Card> parsed = pool.submit(() -> entries.asMap().values().parallelStream()
                 .map((Collection<ScryfallCardEntry> entryGroup) -> new Card(this, entryGroup))
-                .collect(Collectors.toList());
-        Spoiler spoiler = new Spoiler(parsed);
+                .collect(Collectors.toList())).join();
+        Spoiler spoiler = new Spoiler(parsed, pool);
         return spoiler;
     }
 
@@ -81,8 +97,17 @@ public final class CardFactory {
         return arenaFactory;
     }
 
-    TypeLine getCachedTypeLine(TypeLine value) {
-        return typeLineCache.get(value);
+    TypeLine getTypeLine(String typeLine) {
+        return typeLineCache.get(typeLine);
+    }
+
+    CollectorNumber getCollectorNumber(String collectorNumber) {
+        CollectorNumber interned = collectorNumbers.get(collectorNumber);
+        return interned != null ? interned : CollectorNumber.parse(collectorNumber);
+    }
+
+    WrittenNumber getWrittenNumber(String writtenNumber) {
+        return writtenNumbers.computeIfAbsent(writtenNumber, WrittenNumber::create);
     }
 
     ImmutableSet<Finish> cacheFinishSet(ImmutableSet<Finish> finishSet) {
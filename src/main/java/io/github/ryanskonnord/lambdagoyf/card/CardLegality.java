@@ -222,7 +222,8 @@ public abstract class CardLegality {
 
     @Override
     public int hashCode() {
-        return hash != 0 ? hash : (hash = asMap().hashCode());
+        int h = hash;
+        return h != 0 ? h : (hash = asMap().hashCode());
     }
 
     @Override
@@ -24,10 +24,10 @@ import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Maps;
 import io.github.ryanskonnord.util.MapCollectors;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class CardNames {
     private static final ImmutableMap<Character, String> LATIN_CHARACTERS = ImmutableSetMultimap
@@ -45,17 +45,161 @@ public class CardNames {
                     .withKey(Map.Entry::getValue).withValue(Map.Entry::getKey)
                     .unique().toImmutableMap());
     private static final Pattern COMPOUND_NAME_PATTERN = Pattern.compile("(?<first>.*?)\\s*/+\\s*(?<second>.*?)");
+    private static final String COMPOUND_NAME_SEPARATOR = " // ";
 
+    /*
+     * The lower-cased and folded form of every Latin-1 character. Characters above this range are folded only by
+     * lower-casing them.
+     */
+    private static final int FOLD_TABLE_SIZE = 0x100;
+    private static final String[] FOLD_TABLE = new String[FOLD_TABLE_SIZE];
+    private static final boolean[] IS_FOLDED = new boolean[FOLD_TABLE_SIZE];
+
+    static {
+        for (char c = 0; c < FOLD_TABLE_SIZE; c++) {
+            StringBuilder folded = new StringBuilder(2);
+            for (char lowerCase : String.valueOf(c).toLowerCase(Locale.ROOT).toCharArray()) {
+                String latinCharacter = LATIN_CHARACTERS.get(lowerCase);
+                if (latinCharacter != null) {
+                    folded.append(latinCharacter);
+                } else {
+                    folded.append(lowerCase);
+                }
+            }
+            FOLD_TABLE[c] = folded.toString();
+            IS_FOLDED[c] = folded.length() == 1 && folded.charAt(0) == c;
+        }
+    }
+
+    /**
+     * Check whether {@link String#toLowerCase()} would lower-case a string one character at a time. This is true
+     * unless the default locale has its own casing rules, or the string contains a character whose lower-case form
+     * depends on its context or is more than one character long.
+     */
+    private static boolean hasSimpleCasing(CharSequence name) {
+        String language = Locale.getDefault().getLanguage();
+        if (language.equals("tr") || language.equals("az") || language.equals("lt")) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= FOLD_TABLE_SIZE && (c == '\u0130' || c == '\u03a3' || Character.isSurrogate(c))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isFolded(char c) {
+        return c < FOLD_TABLE_SIZE ? IS_FOLDED[c] : Character.toLowerCase(c) == c;
+    }
+
+    private static void appendFolded(CharSequence name, int start, int end, StringBuilder destination) {
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c < FOLD_TABLE_SIZE) {
+                destination.append(FOLD_TABLE[c]);
+            } else {
+                destination.append(Character.toLowerCase(c));
+            }
+        }
+    }
+
+    /*
+     * Whitespace as matched by "\\s" in COMPOUND_NAME_PATTERN, excluding line terminators.
+     */
+    private static boolean isInlineWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\u000b' || c == '\f';
+    }
+
+    /*
+     * Characters that are not matched by "." in COMPOUND_NAME_PATTERN.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean containsLineTerminator(CharSequence name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (isLineTerminator(name.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(CharSequence name, char target) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) == target) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Put a card name into a canonical form for lookup. Compound names are given a standard separator, and the name
+     * is lower-cased with common accent marks removed.
+     *
+     * @return the normalized name, which is the same instance as the argument if it was already normalized
+     */
     public static String normalize(String name) {
+        if (isNormalized(name)) return name;
+        StringBuilder normalized = new StringBuilder(name.length() + COMPOUND_NAME_SEPARATOR.length());
+        normalize(name, normalized);
+        return normalized.toString();
+    }
+
+    private static boolean isNormalized(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '/' || !isFolded(c)) return false;
+        }
+        return hasSimpleCasing(name);
+    }
+
+    /**
+     * Append the normalized form of a card name to a buffer, without creating intermediate strings.
+     *
+     * @param name        the name to normalize
+     * @param destination the buffer to which the normalized name is appended
+     * @return the destination
+     */
+    public static StringBuilder normalize(CharSequence name, StringBuilder destination) {
+        int length = name.length();
+        int slashIndex = indexOf(name, '/');
+        if (slashIndex >= 0 && containsLineTerminator(name) || !hasSimpleCasing(name)) {
+            return normalizeWithFullCasing(name.toString(), destination);
+        }
+
+        if (slashIndex < 0) {
+            appendFolded(name, 0, length, destination);
+        } else {
+            int firstEnd = slashIndex;
+            while (firstEnd > 0 && isInlineWhitespace(name.charAt(firstEnd - 1))) {
+                firstEnd--;
+            }
+            int secondStart = slashIndex;
+            while (secondStart < length && name.charAt(secondStart) == '/') {
+                secondStart++;
+            }
+            while (secondStart < length && isInlineWhitespace(name.charAt(secondStart))) {
+                secondStart++;
+            }
+            appendFolded(name, 0, firstEnd, destination);
+            destination.append(COMPOUND_NAME_SEPARATOR);
+            appendFolded(name, secondStart, length, destination);
+        }
+        return destination;
+    }
+
+    private static StringBuilder normalizeWithFullCasing(String name, StringBuilder destination) {
         Matcher matcher = COMPOUND_NAME_PATTERN.matcher(name);
         if (matcher.matches()) {
-            name = matcher.group("first") + " // " + matcher.group("second");
+            name = matcher.group("first") + COMPOUND_NAME_SEPARATOR + matcher.group("second");
+        }
+        String lowerCase = name.toLowerCase();
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = lowerCase.charAt(i);
+            if (c < FOLD_TABLE_SIZE) {
+                destination.append(FOLD_TABLE[c]);
+            } else {
+                destination.append(c);
+            }
         }
-        return name.toLowerCase().chars().mapToObj(i -> {
-            char c = (char) i;
-            String s = LATIN_CHARACTERS.get(c);
-            return s != null ? s : Character.toString(c);
-        }).collect(Collectors.joining());
+        return destination;
     }
 
     public static <V> Map.Entry<String, V> normalizeMapEntry(Map.Entry<String, ? extends V> entry) {
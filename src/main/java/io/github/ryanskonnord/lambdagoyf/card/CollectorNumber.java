@@ -22,76 +22,208 @@ package io.github.ryanskonnord.lambdagoyf.card;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import io.github.ryanskonnord.util.MapCollectors;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+/**
+ * A collector number, which usually is a plain number but may have a non-numeric prefix or suffix.
+ * <p>
+ * The prefix, number and suffix are packed into one long, with the prefix and suffix stored as IDs into a dictionary
+ * and the number's count of digits stored between the number and the suffix to keep any leading zeros. A dictionary assigns its IDs in sorted
+ * order, so two collector numbers from the same dictionary are compared by that long alone. Each {@link CardFactory}
+ * builds one dictionary that covers every collector number in its spoiler, which bounds it to the card data and lets
+ * it be collected along with the spoiler. Collector numbers from different dictionaries compare their parts.
+ */
 public final class CollectorNumber implements Comparable<CollectorNumber> {
 
-    private final String collectorString;
-    private final String prefix;
-    private final int number;
+    private static final int WIDTH_BITS = 4;
+    private static final int ID_BITS = 14;
+    private static final int WIDTH_SHIFT = ID_BITS;
+    private static final int NUMBER_SHIFT = WIDTH_SHIFT + WIDTH_BITS;
+    private static final int PREFIX_SHIFT = NUMBER_SHIFT + Integer.SIZE - 1;
+    private static final int MAX_DICTIONARY_SIZE = 1 << ID_BITS;
+
+    /*
+     * A collector number split into its parts, where the width is the number's count of digits as written, or zero if
+     * no number was written.
+     */
+    private static final class Parts {
+        private final String prefix;
+        private final int number;
+        private final int width;
+        private final String suffix;
+
+        private Parts(String prefix, int number, int width, String suffix) {
+            Preconditions.checkArgument(number >= 0);
+            this.prefix = Objects.requireNonNull(prefix);
+            this.number = number;
+            this.width = width;
+            this.suffix = Objects.requireNonNull(suffix);
+        }
+    }
+
+    private static final class Dictionary {
+        private static final Dictionary EMPTY = new Dictionary(Set.of(""), Set.of(""));
+
+        private final ImmutableList<String> prefixes;
+        private final ImmutableMap<String, Integer> prefixIds;
+        private final ImmutableList<String> suffixes;
+        private final ImmutableMap<String, Integer> suffixIds;
+
+        private Dictionary(Collection<String> prefixes, Collection<String> suffixes) {
+            this.prefixes = sortWithEmpty(prefixes);
+            this.prefixIds = assignIds(this.prefixes);
+            this.suffixes = sortWithEmpty(suffixes);
+            this.suffixIds = assignIds(this.suffixes);
+        }
+
+        private static ImmutableList<String> sortWithEmpty(Collection<String> values) {
+            ImmutableList<String> sorted = ImmutableSortedSet.<String>naturalOrder().add("").addAll(values).build().asList();
+            Preconditions.checkArgument(sorted.size() <= MAX_DICTIONARY_SIZE, "Too many distinct collector number parts");
+            return sorted;
+        }
+
+        private static ImmutableMap<String, Integer> assignIds(List<String> values) {
+            return IntStream.range(0, values.size()).boxed()
+                    .collect(ImmutableMap.toImmutableMap(values::get, Function.identity()));
+        }
+
+        private CollectorNumber create(Parts parts) {
+            long key = ((long) prefixIds.get(parts.prefix) << PREFIX_SHIFT)
+                    | ((long) parts.number << NUMBER_SHIFT)
+                    | ((long) encodeWidth(parts.width) << WIDTH_SHIFT)
+                    | suffixIds.get(parts.suffix);
+            return new CollectorNumber(this, key);
+        }
+    }
+
+    private final Dictionary dictionary;
+    private final long key;
+
+    private CollectorNumber(Dictionary dictionary, long key) {
+        this.dictionary = Objects.requireNonNull(dictionary);
+        this.key = key;
+    }
 
-    private CollectorNumber(int number) {
-        this(Integer.toString(number), "", number);
+    /*
+     * Order numbers that differ only in leading zeros as their strings would be ordered, with more zeros first and no
+     * number at all before any number. The width is compared before the suffix, as the first differing character of
+     * the strings is a digit. The one exception is a padded zero, such as "00a" against "0", where the shorter string
+     * may end or reach its suffix before the first difference; no card's collector number is a padded zero.
+     */
+    private static int encodeWidth(int width) {
+        Preconditions.checkArgument(width >= 0 && width < (1 << WIDTH_BITS));
+        return width == 0 ? 0 : (1 << WIDTH_BITS) - width;
     }
 
-    private CollectorNumber(String original, String prefix, int number) {
-        Preconditions.checkArgument(number >= 0);
-        this.collectorString = Objects.requireNonNull(original);
-        this.prefix = Objects.requireNonNull(prefix);
-        this.number = number;
+    private static int decodeWidth(int encoded) {
+        return encoded == 0 ? 0 : (1 << WIDTH_BITS) - encoded;
+    }
+
+    private static Parts plain(int number) {
+        return new Parts("", number, Integer.toString(number).length(), "");
     }
 
     private static final ImmutableList<CollectorNumber> FLYWEIGHTS = IntStream.rangeClosed(0, 350)
-            .mapToObj(CollectorNumber::new)
+            .mapToObj((int number) -> Dictionary.EMPTY.create(plain(number)))
             .collect(ImmutableList.toImmutableList());
 
     private static final Pattern NUMBER_PATTERN = Pattern.compile("(?<prefix>\\d*[^\\d]+)?(?<number>\\d+)(?<suffix>.*?)");
 
     public static CollectorNumber of(int number) {
-        return (number < FLYWEIGHTS.size()) ? FLYWEIGHTS.get(number) : new CollectorNumber(number);
+        return (number < FLYWEIGHTS.size()) ? FLYWEIGHTS.get(number) : Dictionary.EMPTY.create(plain(number));
     }
 
-    public static CollectorNumber parse(String collectorString) {
-        int number;
+    private static Parts split(String collectorString) {
         try {
-            number = Integer.parseInt(collectorString);
-            Preconditions.checkArgument(number >= 0);
-            return of(number);
+            return plain(Integer.parseInt(collectorString));
         } catch (NumberFormatException e) {
             // Fall through
         }
         Matcher matcher = NUMBER_PATTERN.matcher(collectorString);
-        String prefix;
         if (matcher.matches()) {
-            number = Integer.parseInt(matcher.group("number"));
-            prefix = Strings.nullToEmpty(matcher.group("prefix"));
+            String digits = matcher.group("number");
+            return new Parts(Strings.nullToEmpty(matcher.group("prefix")), Integer.parseInt(digits), digits.length(),
+                    matcher.group("suffix"));
         } else {
-            number = 0;
-            prefix = collectorString;
+            return new Parts(collectorString, 0, 0, "");
         }
-        return new CollectorNumber(collectorString, prefix, number);
+    }
+
+    /**
+     * Parse a collector number on its own. Use {@link #internAll} instead to parse many collector numbers that will
+     * be compared to each other.
+     */
+    public static CollectorNumber parse(String collectorString) {
+        Parts parts = split(collectorString);
+        if (parts.prefix.isEmpty() && parts.suffix.isEmpty()) {
+            return Dictionary.EMPTY.create(parts);
+        }
+        return new Dictionary(Set.of(parts.prefix), Set.of(parts.suffix)).create(parts);
+    }
+
+    /**
+     * Parse a group of collector numbers into a shared dictionary, so that any two of them are compared by a single
+     * long comparison.
+     *
+     * @return each distinct collector string mapped to its parsed value
+     */
+    static ImmutableMap<String, CollectorNumber> internAll(Collection<String> collectorStrings) {
+        ImmutableMap<String, Parts> parts = collectorStrings.stream().distinct()
+                .collect(MapCollectors.<String>collecting()
+                        .memoizing(CollectorNumber::split)
+                        .unique().toImmutableMap());
+        Dictionary dictionary = new Dictionary(
+                parts.values().stream().map(p -> p.prefix).collect(Collectors.toSet()),
+                parts.values().stream().map(p -> p.suffix).collect(Collectors.toSet()));
+        return ImmutableMap.copyOf(Maps.transformValues(parts, dictionary::create));
+    }
+
+    private String getPrefix() {
+        return dictionary.prefixes.get((int) (key >>> PREFIX_SHIFT));
     }
 
     public int getNumber() {
-        return number;
+        return (int) (key >>> NUMBER_SHIFT) & Integer.MAX_VALUE;
+    }
+
+    private String getSuffix() {
+        return dictionary.suffixes.get((int) key & (MAX_DICTIONARY_SIZE - 1));
+    }
+
+    private int getWidth() {
+        return decodeWidth((int) (key >>> WIDTH_SHIFT) & ((1 << WIDTH_BITS) - 1));
     }
 
     public String getCollectorString() {
-        return collectorString;
+        int width = getWidth();
+        if (width == 0) return getPrefix() + getSuffix();
+        return getPrefix() + Strings.padStart(Integer.toString(getNumber()), width, '0') + getSuffix();
     }
 
     @Override
     public int compareTo(CollectorNumber that) {
         if (this == that) return 0;
-        int cmp = this.prefix.compareTo(that.prefix);
+        if (this.dictionary == that.dictionary) return Long.compare(this.key, that.key);
+        int cmp = this.getPrefix().compareTo(that.getPrefix());
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(this.getNumber(), that.getNumber());
         if (cmp != 0) return cmp;
-        cmp = this.number - that.number;
+        cmp = Integer.compare(encodeWidth(this.getWidth()), encodeWidth(that.getWidth()));
         if (cmp != 0) return cmp;
-        return this.collectorString.compareTo(that.collectorString);
+        return this.getSuffix().compareTo(that.getSuffix());
     }
 
     @Override
@@ -104,11 +236,14 @@ public final class CollectorNumber implements Comparable<CollectorNumber> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CollectorNumber that = (CollectorNumber) o;
-        return collectorString.equals(that.collectorString);
+        return (dictionary == that.dictionary) ? key == that.key : compareTo(that) == 0;
     }
 
     @Override
     public int hashCode() {
-        return collectorString.hashCode();
+        int hash = getPrefix().hashCode();
+        hash = 31 * hash + getNumber();
+        hash = 31 * hash + getWidth();
+        return 31 * hash + getSuffix().hashCode();
     }
 }
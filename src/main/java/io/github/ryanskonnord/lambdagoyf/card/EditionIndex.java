@@ -0,0 +1,219 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.github.ryanskonnord.lambdagoyf.card.field.BorderColor;
+import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
+import io.github.ryanskonnord.lambdagoyf.card.field.FrameEffect;
+import io.github.ryanskonnord.lambdagoyf.card.field.PromoType;
+import io.github.ryanskonnord.lambdagoyf.card.field.Watermark;
+import io.github.ryanskonnord.util.OrdinalSet;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over every edition in a {@link Spoiler}, each mapping a key to the set of ordinals of the
+ * editions that have it.
+ * <p>
+ * The sets can be intersected and unioned to answer compound queries without visiting any editions. A predicate
+ * that is tested repeatedly against the same editions, such as a version preference applied to every deck, can also
+ * be evaluated once with {@link #matching} and then tested as a set lookup.
+ */
+public final class EditionIndex {
+
+    private final ImmutableList<CardEdition> editions;
+    private final OrdinalSet all;
+    private final ImmutableMap<String, OrdinalSet> byArtist;
+    private final ImmutableMap<UUID, OrdinalSet> byIllustrationId;
+    private final ImmutableMap<Word<FrameEffect>, OrdinalSet> byFrameEffect;
+    private final ImmutableMap<Word<PromoType>, OrdinalSet> byPromoType;
+    private final ImmutableMap<Word<Watermark>, OrdinalSet> byWatermark;
+    private final ImmutableMap<Word<BorderColor>, OrdinalSet> byBorderColor;
+    private final ImmutableMap<Word<ExpansionType>, OrdinalSet> byExpansionType;
+    private final OrdinalSet withAnyWatermark;
+
+    /**
+     * @param editions every edition in the spoiler, where each edition's position is its ordinal
+     */
+    EditionIndex(ImmutableList<CardEdition> editions) {
+        this.editions = Objects.requireNonNull(editions);
+        int size = editions.size();
+        OrdinalSet.Builder allBuilder = new OrdinalSet.Builder(size);
+        for (int i = 0; i < size; i++) {
+            allBuilder.add(i);
+        }
+        all = allBuilder.build();
+
+        byArtist = index(CardEdition::getArtists);
+        byIllustrationId = index(e -> e.getFaces().stream()
+                .map(CardEditionFace::getIllustrationId).flatMap(Optional::stream));
+        byFrameEffect = index(e -> e.getFrameEffects().asList().stream());
+        byPromoType = index(e -> e.getPromoTypes().asList().stream());
+        byWatermark = index(e -> e.getFaces().stream()
+                .map(CardEditionFace::getWatermark).flatMap(Optional::stream));
+        byBorderColor = index(e -> Stream.of(e.getBorderColor()));
+        byExpansionType = index(e -> Stream.of(e.getExpansion().getType()));
+        withAnyWatermark = byWatermark.values().stream().reduce(none(), OrdinalSet::or);
+    }
+
+    private <K> ImmutableMap<K, OrdinalSet> index(Function<CardEdition, Stream<K>> keyExtractor) {
+        Map<K, OrdinalSet.Builder> builders = new HashMap<>();
+        for (int i = 0; i < editions.size(); i++) {
+            int ordinal = i;
+            keyExtractor.apply(editions.get(i)).distinct().forEach(key ->
+                    builders.computeIfAbsent(key, k -> new OrdinalSet.Builder(editions.size())).add(ordinal));
+        }
+        return builders.entrySet().stream()
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> e.getValue().build()));
+    }
+
+    private OrdinalSet get(Map<?, OrdinalSet> index, Object key) {
+        OrdinalSet set = index.get(key);
+        return set != null ? set : none();
+    }
+
+    public OrdinalSet all() {
+        return all;
+    }
+
+    public OrdinalSet none() {
+        return OrdinalSet.empty(editions.size());
+    }
+
+    public OrdinalSet withArtist(String artist) {
+        return get(byArtist, artist);
+    }
+
+    public OrdinalSet withIllustrationId(UUID illustrationId) {
+        return get(byIllustrationId, illustrationId);
+    }
+
+    public OrdinalSet withFrameEffect(FrameEffect frameEffect) {
+        return get(byFrameEffect, Word.of(frameEffect));
+    }
+
+    public OrdinalSet withPromoType(PromoType promoType) {
+        return get(byPromoType, Word.of(promoType));
+    }
+
+    public OrdinalSet withWatermark(Watermark watermark) {
+        return get(byWatermark, Word.of(watermark));
+    }
+
+    public OrdinalSet withAnyWatermark() {
+        return withAnyWatermark;
+    }
+
+    public OrdinalSet withBorderColor(BorderColor borderColor) {
+        return get(byBorderColor, Word.of(borderColor));
+    }
+
+    public OrdinalSet withExpansionType(ExpansionType expansionType) {
+        return get(byExpansionType, Word.of(expansionType));
+    }
+
+    /**
+     * Evaluate a predicate once against every edition.
+     */
+    public OrdinalSet matching(Predicate<? super CardEdition> predicate) {
+        OrdinalSet.Builder builder = new OrdinalSet.Builder(editions.size());
+        for (int i = 0; i < editions.size(); i++) {
+            if (predicate.test(editions.get(i))) {
+                builder.add(i);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Evaluate a predicate once against every edition in a set, without visiting the editions outside it.
+     */
+    public OrdinalSet matching(OrdinalSet set, Predicate<? super CardEdition> predicate) {
+        OrdinalSet.Builder builder = new OrdinalSet.Builder(editions.size());
+        set.stream().filter(ordinal -> predicate.test(editions.get(ordinal))).forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Split a set by artist, as if intersecting it with {@link #withArtist} for each artist. An edition with more than
+     * one artist is in the group of each of them.
+     *
+     * @return each artist who has an edition in the set, mapped to the editions in the set by that artist, in order of
+     * the artists' first editions
+     */
+    public ImmutableMap<String, OrdinalSet> groupByArtist(OrdinalSet set) {
+        Map<String, OrdinalSet.Builder> builders = new LinkedHashMap<>();
+        set.stream().forEach((int ordinal) -> editions.get(ordinal).getArtists().distinct().forEach(artist ->
+                builders.computeIfAbsent(artist, k -> new OrdinalSet.Builder(editions.size())).add(ordinal)));
+        return builders.entrySet().stream()
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> e.getValue().build()));
+    }
+
+    /**
+     * @return the set of the given editions
+     * @throws IllegalArgumentException if any edition is not in this index
+     */
+    public OrdinalSet toSet(Stream<? extends CardEdition> editionsToAdd) {
+        OrdinalSet.Builder builder = new OrdinalSet.Builder(editions.size());
+        editionsToAdd.forEach((CardEdition edition) -> {
+            Preconditions.checkArgument(isIndexed(edition), "Edition is not indexed: %s", edition);
+            builder.add(edition.getOrdinal());
+        });
+        return builder.build();
+    }
+
+    private boolean isIndexed(CardEdition edition) {
+        int ordinal = edition.getOrdinal();
+        return ordinal >= 0 && ordinal < editions.size() && editions.get(ordinal) == edition;
+    }
+
+    /**
+     * @return a predicate that is true of editions in the set, and false of editions outside this index
+     */
+    public Predicate<CardEdition> asPredicate(OrdinalSet set) {
+        Objects.requireNonNull(set);
+        return (CardEdition edition) -> isIndexed(edition) && set.contains(edition.getOrdinal());
+    }
+
+    /**
+     * Evaluate a predicate once against every edition, and return an equivalent predicate that tests indexed
+     * editions with a set lookup.
+     */
+    public Predicate<CardEdition> precompute(Predicate<? super CardEdition> predicate) {
+        OrdinalSet set = matching(predicate);
+        return (CardEdition edition) -> isIndexed(edition) ? set.contains(edition.getOrdinal()) : predicate.test(edition);
+    }
+
+    public Stream<CardEdition> getEditions(OrdinalSet set) {
+        return set.stream().mapToObj(editions::get);
+    }
+
+}
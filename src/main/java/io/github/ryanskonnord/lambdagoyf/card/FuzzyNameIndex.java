@@ -0,0 +1,337 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.primitives.Ints;
+import io.github.ryanskonnord.lambdagoyf.card.field.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A typo-tolerant index over every name known to a {@link Spoiler}, including the names of all its localized
+ * spoilers.
+ * <p>
+ * Names are broken into trigrams. A query collects the names that share enough trigrams with it to possibly be
+ * within the edit distance bound, then verifies each of those with a bounded edit distance (counting a
+ * transposition of adjacent letters as one edit). A query too short for its trigrams to rule out any name is instead
+ * verified against every name whose length is within the bound.
+ */
+public final class FuzzyNameIndex {
+
+    public static final int DEFAULT_MAX_DISTANCE = 3;
+
+    private static final char START_MARKER = '\u0002';
+    private static final char END_MARKER = '\u0003';
+
+    /*
+     * A transposition of two adjacent characters touches at most four trigrams; any other single edit touches at
+     * most three.
+     */
+    private static final int GRAMS_PER_EDIT = 4;
+
+    public static final class Candidate {
+        private final Card card;
+        private final String matchedName;
+        private final int distance;
+        private final boolean isLocalized;
+
+        private Candidate(Card card, String matchedName, int distance, boolean isLocalized) {
+            this.card = Objects.requireNonNull(card);
+            this.matchedName = Objects.requireNonNull(matchedName);
+            this.distance = distance;
+            this.isLocalized = isLocalized;
+        }
+
+        public Card getCard() {
+            return card;
+        }
+
+        /**
+         * @return the indexed name that matched, in normalized form
+         */
+        public String getMatchedName() {
+            return matchedName;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public boolean isLocalized() {
+            return isLocalized;
+        }
+
+        private static final Comparator<Candidate> RANKING = Comparator
+                .comparingInt(Candidate::getDistance)
+                .thenComparing(Candidate::isLocalized)
+                .thenComparing(Candidate::getCard)
+                .thenComparing(Candidate::getMatchedName);
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Candidate that = (Candidate) o;
+            return distance == that.distance && isLocalized == that.isLocalized
+                    && card.equals(that.card) && matchedName.equals(that.matchedName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(card, matchedName, distance, isLocalized);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (\"%s\", %d)", card, matchedName, distance);
+        }
+    }
+
+    private final String[] names;
+    private final ImmutableList<ImmutableSet<Card>> cards;
+    private final boolean[] isLocalized;
+    private final ImmutableMap<Long, int[]> postings;
+    private final int[][] namesByLength;
+    private final ThreadLocal<int[]> sharedGramCounts;
+
+    private FuzzyNameIndex(SetMultimap<String, Card> primaryNames, SetMultimap<String, Card> localizedNames) {
+        Map<String, Boolean> allNames = new LinkedHashMap<>();
+        primaryNames.keySet().forEach(name -> allNames.put(name, false));
+        localizedNames.keySet().forEach(name -> allNames.putIfAbsent(name, true));
+
+        int size = allNames.size();
+        names = new String[size];
+        isLocalized = new boolean[size];
+        ImmutableList.Builder<ImmutableSet<Card>> cardsBuilder = ImmutableList.builderWithExpectedSize(size);
+        Map<Long, List<Integer>> postingLists = new HashMap<>();
+        List<List<Integer>> lengthLists = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<String, Boolean> entry : allNames.entrySet()) {
+            String name = entry.getKey();
+            boolean localized = entry.getValue();
+            names[index] = name;
+            while (lengthLists.size() <= name.length()) {
+                lengthLists.add(new ArrayList<>());
+            }
+            lengthLists.get(name.length()).add(index);
+            isLocalized[index] = localized;
+            cardsBuilder.add(ImmutableSet.copyOf((localized ? localizedNames : primaryNames).get(name)));
+            for (long gram : getTrigrams(name)) {
+                List<Integer> postingList = postingLists.computeIfAbsent(gram, k -> new ArrayList<>());
+                if (postingList.isEmpty() || postingList.get(postingList.size() - 1) != index) {
+                    postingList.add(index);
+                }
+            }
+            index++;
+        }
+        cards = cardsBuilder.build();
+
+        ImmutableMap.Builder<Long, int[]> postingsBuilder = ImmutableMap.builderWithExpectedSize(postingLists.size());
+        for (Map.Entry<Long, List<Integer>> entry : postingLists.entrySet()) {
+            postingsBuilder.put(entry.getKey(), Ints.toArray(entry.getValue()));
+        }
+        postings = postingsBuilder.build();
+        namesByLength = lengthLists.stream().map(Ints::toArray).toArray(int[][]::new);
+        sharedGramCounts = ThreadLocal.withInitial(() -> new int[size]);
+    }
+
+    public static FuzzyNameIndex create(Spoiler spoiler) {
+        SetMultimap<String, Card> primaryNames = ImmutableSetMultimap.copyOf(spoiler.getNameDictionary().entrySet());
+        Set<Language> languages = EnumSet.allOf(Language.class);
+        SetMultimap<String, Card> localizedNames = spoiler.getLocalizedNameTable(languages)
+                .getNames(LocalizedNameTable.getMask(languages));
+        return new FuzzyNameIndex(primaryNames, localizedNames);
+    }
+
+    private static long[] getTrigrams(String name) {
+        int length = name.length();
+        long[] grams = new long[length];
+        for (int i = 0; i < length; i++) {
+            char c0 = i == 0 ? START_MARKER : name.charAt(i - 1);
+            char c1 = name.charAt(i);
+            char c2 = i == length - 1 ? END_MARKER : name.charAt(i + 1);
+            grams[i] = ((long) c0 << 32) | ((long) c1 << 16) | c2;
+        }
+        return grams;
+    }
+
+    /**
+     * The maximum edit distance that a query of the given length will tolerate. Short names are given a tighter
+     * bound so that a few keystrokes don't match half of the dictionary.
+     */
+    private static int getDistanceBound(int queryLength, int maxDistance) {
+        return Math.min(maxDistance, Math.max(1, queryLength / 4));
+    }
+
+    /**
+     * Find every indexed name within the default edit distance bound.
+     *
+     * @return the candidates, best first
+     */
+    public ImmutableList<Candidate> lookUp(String name) {
+        return lookUp(name, DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * Find every indexed name within an edit distance bound. The bound is tightened for very short names.
+     *
+     * @return the candidates, best first
+     */
+    public ImmutableList<Candidate> lookUp(String name, int maxDistance) {
+        Preconditions.checkArgument(maxDistance >= 0);
+        String query = CardNames.normalize(name);
+        int queryLength = query.length();
+        if (queryLength == 0) return ImmutableList.of();
+        int bound = getDistanceBound(queryLength, maxDistance);
+
+        Set<Long> queryGrams = new HashSet<>();
+        for (long gram : getTrigrams(query)) {
+            queryGrams.add(gram);
+        }
+        int threshold = queryGrams.size() - GRAMS_PER_EDIT * bound;
+        List<Candidate> candidates = new ArrayList<>();
+        if (threshold <= 0) {
+            // A name within the bound might share no trigrams with the query, so check every name of a nearby length.
+            int maxLength = Math.min(queryLength + bound, namesByLength.length - 1);
+            for (int length = Math.max(0, queryLength - bound); length <= maxLength; length++) {
+                for (int index : namesByLength[length]) {
+                    addIfWithinBound(candidates, query, index, bound);
+                }
+            }
+        } else {
+            int[] gramCounts = sharedGramCounts.get();
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            for (long gram : queryGrams) {
+                int[] posting = postings.get(gram);
+                if (posting == null) continue;
+                for (int index : posting) {
+                    if (gramCounts[index]++ == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = index;
+                    }
+                }
+            }
+            try {
+                for (int i = 0; i < touchedCount; i++) {
+                    int index = touched[i];
+                    if (gramCounts[index] < threshold) continue;
+                    addIfWithinBound(candidates, query, index, bound);
+                }
+            } finally {
+                for (int i = 0; i < touchedCount; i++) {
+                    gramCounts[touched[i]] = 0;
+                }
+            }
+        }
+        candidates.sort(Candidate.RANKING);
+        return ImmutableList.copyOf(candidates);
+    }
+
+    private void addIfWithinBound(List<Candidate> candidates, String query, int index, int bound) {
+        String candidateName = names[index];
+        if (Math.abs(candidateName.length() - query.length()) > bound) return;
+        int distance = getBoundedDistance(query, candidateName, bound);
+        if (distance <= bound) {
+            for (Card card : cards.get(index)) {
+                candidates.add(new Candidate(card, candidateName, distance, isLocalized[index]));
+            }
+        }
+    }
+
+    /**
+     * Find the card with the closest name, if exactly one card is the closest. This is suitable as a fallback for
+     * names that could not be resolved exactly.
+     */
+    public Optional<Card> lookUpBestMatch(String name) {
+        List<Candidate> candidates = lookUp(name);
+        if (candidates.isEmpty()) return Optional.empty();
+        int bestDistance = candidates.get(0).getDistance();
+        Card best = candidates.get(0).getCard();
+        for (Candidate candidate : candidates) {
+            if (candidate.getDistance() > bestDistance) break;
+            if (!candidate.getCard().equals(best)) return Optional.empty();
+        }
+        return Optional.of(best);
+    }
+
+    /**
+     * Compute the optimal string alignment distance between two strings, giving up as soon as it must exceed the
+     * bound.
+     *
+     * @return the distance, or {@code bound + 1} if the distance is greater than the bound
+     */
+    private static int getBoundedDistance(String a, String b, int bound) {
+        int m = a.length();
+        int n = b.length();
+        int[] previousRow = new int[n + 1];
+        int[] row = new int[n + 1];
+        int[] nextRow = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            int[] swap = previousRow;
+            previousRow = row;
+            row = nextRow;
+            nextRow = swap;
+
+            row[0] = i;
+            int rowMinimum = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, nextRow[j - 2] + 1);
+                }
+                row[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > bound) return bound + 1;
+        }
+        return Math.min(row[n], bound + 1);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+}
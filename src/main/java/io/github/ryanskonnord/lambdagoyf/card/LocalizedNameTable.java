@@ -0,0 +1,272 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import io.github.ryanskonnord.lambdagoyf.card.field.Language;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A single open-addressed hash table of the card names printed in any number of languages, together with the
+ * spoiler's primary name dictionary.
+ * <p>
+ * Each slot holds a normalized name, a bitmask of the languages (or the primary dictionary) in which the name has
+ * the slot's meaning, and a value. A non-negative value is the ordinal of the one card with that name. A negative
+ * value points to a set of cards whose names collide in that language, stored outside the table. A name that means
+ * different things in different languages occupies one slot per meaning.
+ */
+final class LocalizedNameTable {
+
+    /**
+     * The bit for the spoiler's primary name dictionary, in which names are English or otherwise unique.
+     */
+    static final int PRIMARY_DICTIONARY = 1 << 31;
+
+    static {
+        if (Language.values().length >= 31) {
+            throw new AssertionError("Too many languages for the bitmask");
+        }
+    }
+
+    static int getBit(Language language) {
+        return 1 << language.ordinal();
+    }
+
+    static int getMask(Collection<Language> languages) {
+        int mask = 0;
+        for (Language language : languages) {
+            mask |= getBit(language);
+        }
+        return mask;
+    }
+
+    private static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private final int coveredLanguages;
+    private final int populatedLanguages;
+    private final ImmutableList<Card> cards;
+    private final ImmutableList<ImmutableSet<Card>> collisions;
+    private final String[] keys;
+    private final int[] masks;
+    private final int[] values;
+
+    private LocalizedNameTable(int coveredLanguages, ImmutableList<Card> cards,
+                               ImmutableList<ImmutableSet<Card>> collisions, List<String> entryNames,
+                               List<Integer> entryMasks, List<Integer> entryValues) {
+        this.coveredLanguages = coveredLanguages;
+        this.cards = cards;
+        this.collisions = collisions;
+
+        int capacity = Integer.highestOneBit(Math.max(entryNames.size(), 1) * 2) * 2;
+        keys = new String[capacity];
+        masks = new int[capacity];
+        values = new int[capacity];
+        int populated = 0;
+        for (int i = 0; i < entryNames.size(); i++) {
+            String name = entryNames.get(i);
+            int slot = getHomeSlot(name);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = name;
+            masks[slot] = entryMasks.get(i);
+            values[slot] = entryValues.get(i);
+            populated |= masks[slot];
+        }
+        populatedLanguages = populated & ~PRIMARY_DICTIONARY;
+    }
+
+    private int getHomeSlot(String name) {
+        int hash = name.hashCode() * 0x9e3779b9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private static final class NameMeanings {
+        private Card primaryCard;
+        private final Map<Language, Set<Card>> byLanguage = new EnumMap<>(Language.class);
+    }
+
+    /**
+     * Build a table of the names printed in a set of languages, in a single pass over every edition.
+     */
+    static LocalizedNameTable build(Spoiler spoiler, Set<Language> languages) {
+        int coveredLanguages = getMask(languages);
+        ImmutableList<Card> cards = spoiler.getCards().asList();
+        Map<String, NameMeanings> meanings = new HashMap<>(cards.size() * 4);
+        spoiler.getNameDictionary().forEach((name, card) ->
+                meanings.computeIfAbsent(name, k -> new NameMeanings()).primaryCard = card);
+        for (Card card : cards) {
+            for (CardEdition edition : card.getEditions()) {
+                Optional<Language> language = edition.getLanguage().getEnum();
+                if (language.isEmpty() || (coveredLanguages & getBit(language.get())) == 0) continue;
+                for (CardEditionFace face : edition.getFaces()) {
+                    Optional<String> printedName = face.getPrintedName();
+                    if (printedName.isPresent()) {
+                        String name = CardNames.normalize(printedName.get());
+                        meanings.computeIfAbsent(name, k -> new NameMeanings()).byLanguage
+                                .computeIfAbsent(language.get(), k -> new LinkedHashSet<>(2))
+                                .add(card);
+                    }
+                }
+            }
+        }
+
+        Map<Card, Integer> ordinals = new HashMap<>(cards.size() * 2);
+        for (int i = 0; i < cards.size(); i++) {
+            ordinals.put(cards.get(i), i);
+        }
+        Map<ImmutableSet<Card>, Integer> collisionIndices = new LinkedHashMap<>();
+        List<String> entryNames = new ArrayList<>(meanings.size() + meanings.size() / 4);
+        List<Integer> entryMasks = new ArrayList<>(entryNames.size());
+        List<Integer> entryValues = new ArrayList<>(entryNames.size());
+        for (Map.Entry<String, NameMeanings> entry : meanings.entrySet()) {
+            NameMeanings nameMeanings = entry.getValue();
+            Map<Integer, Integer> masksByValue = new LinkedHashMap<>(2);
+            if (nameMeanings.primaryCard != null) {
+                masksByValue.put(ordinals.get(nameMeanings.primaryCard), PRIMARY_DICTIONARY);
+            }
+            for (Map.Entry<Language, Set<Card>> languageEntry : nameMeanings.byLanguage.entrySet()) {
+                Set<Card> namedCards = languageEntry.getValue();
+                int value;
+                if (namedCards.size() == 1) {
+                    value = ordinals.get(namedCards.iterator().next());
+                } else {
+                    ImmutableSet<Card> collision = namedCards.stream().sorted()
+                            .collect(ImmutableSet.toImmutableSet());
+                    value = -1 - collisionIndices.computeIfAbsent(collision, k -> collisionIndices.size());
+                }
+                masksByValue.merge(value, getBit(languageEntry.getKey()), (a, b) -> a | b);
+            }
+            for (Map.Entry<Integer, Integer> meaning : masksByValue.entrySet()) {
+                entryNames.add(entry.getKey());
+                entryMasks.add(meaning.getValue());
+                entryValues.add(meaning.getKey());
+            }
+        }
+
+        return new LocalizedNameTable(coveredLanguages, cards, ImmutableList.copyOf(collisionIndices.keySet()),
+                entryNames, entryMasks, entryValues);
+    }
+
+    boolean covers(int languageMask) {
+        return (coveredLanguages & languageMask) == languageMask;
+    }
+
+    boolean hasNames(Language language) {
+        return (populatedLanguages & getBit(language)) != 0;
+    }
+
+    /**
+     * Probe for a normalized name.
+     *
+     * @param bit      the language in which to look up the name
+     * @param fallback the bit to use if the name has no unique meaning in the language, or zero for none
+     * @return the value of the matching slot, or {@link #NOT_FOUND}
+     */
+    private int probe(String name, int bit, int fallback) {
+        int fallbackValue = NOT_FOUND;
+        int languageValue = NOT_FOUND;
+        for (int slot = getHomeSlot(name); keys[slot] != null; slot = (slot + 1) & (keys.length - 1)) {
+            if (!keys[slot].equals(name)) continue;
+            int mask = masks[slot];
+            if ((mask & bit) != 0) {
+                if (values[slot] >= 0 || fallback == 0) return values[slot];
+                languageValue = values[slot];
+            }
+            if ((mask & fallback) != 0) {
+                fallbackValue = values[slot];
+            }
+        }
+        return fallbackValue != NOT_FOUND ? fallbackValue : languageValue;
+    }
+
+    private ImmutableSet<Card> getCards(int value) {
+        return value == NOT_FOUND ? ImmutableSet.of()
+                : value >= 0 ? ImmutableSet.of(cards.get(value))
+                : collisions.get(-1 - value);
+    }
+
+    private Optional<Card> getUniqueCard(int value) {
+        return value >= 0 ? Optional.of(cards.get(value)) : Optional.empty();
+    }
+
+    Optional<Card> lookUpUnique(String normalizedName, Language language) {
+        return getUniqueCard(probe(normalizedName, getBit(language), 0));
+    }
+
+    ImmutableSet<Card> lookUp(String normalizedName, Language language) {
+        return getCards(probe(normalizedName, getBit(language), 0));
+    }
+
+    /**
+     * Look up a name uniquely in a language if possible, and otherwise in the primary dictionary.
+     */
+    Optional<Card> lookUpWithFallback(String normalizedName, Language language) {
+        return getUniqueCard(probe(normalizedName, getBit(language), PRIMARY_DICTIONARY));
+    }
+
+    /**
+     * Collect every name that has a meaning in any of a set of languages.
+     */
+    ImmutableSetMultimap<String, Card> getNames(int languageMask) {
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && (masks[slot] & languageMask) != 0) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(Comparator.comparing((Integer slot) -> keys[slot]));
+        ImmutableSetMultimap.Builder<String, Card> builder = ImmutableSetMultimap.builder();
+        for (int slot : slots) {
+            builder.putAll(keys[slot], getCards(values[slot]));
+        }
+        return builder.build();
+    }
+
+    ImmutableList<Card> getCardsWithCollidingNames(Language language) {
+        int bit = getBit(language);
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && (masks[slot] & bit) != 0 && values[slot] < 0) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(Comparator.comparing((Integer slot) -> keys[slot]));
+        ImmutableList.Builder<Card> builder = ImmutableList.builder();
+        for (int slot : slots) {
+            builder.addAll(getCards(values[slot]));
+        }
+        return builder.build();
+    }
+
+}
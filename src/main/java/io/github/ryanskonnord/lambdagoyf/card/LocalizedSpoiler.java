@@ -19,81 +19,35 @@
 
 package io.github.ryanskonnord.lambdagoyf.card;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableCollection;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.SetMultimap;
 import io.github.ryanskonnord.lambdagoyf.card.field.Language;
-import io.github.ryanskonnord.util.MapCollectors;
 
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Map;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * A view of the card names printed in one language. The names themselves are kept in a table shared by all
+ * languages, which is built by the parent spoiler.
+ */
 public final class LocalizedSpoiler {
 
     private final Spoiler parent;
     private final Language language;
-    private final ImmutableMap<String, Card> byName;
-    private final ImmutableSetMultimap<String, Card> collidingNames;
+    private final LocalizedNameTable table;
 
-    private LocalizedSpoiler(Spoiler spoiler, Language language,
-                             Map<String, Card> byName, Multimap<String, Card> collidingNames) {
+    private LocalizedSpoiler(Spoiler spoiler, Language language, LocalizedNameTable table) {
         this.parent = Objects.requireNonNull(spoiler);
         this.language = Objects.requireNonNull(language);
-        this.byName = byName.entrySet().stream()
-                .sorted(Comparator.comparing((Map.Entry<String, Card> e) -> e.getValue())
-                        .thenComparing(Map.Entry::getKey))
-                .collect(MapCollectors.<String, Card>collectingEntries().unique().toImmutableMap());
-        this.collidingNames = collidingNames.asMap().entrySet().stream()
-                .sorted(Comparator.comparing(Map.Entry::getKey))
-                .collect(ImmutableSetMultimap.flatteningToImmutableSetMultimap(
-                        Map.Entry::getKey,
-                        e -> e.getValue().stream().sorted()
-                ));
+        this.table = Objects.requireNonNull(table);
     }
 
     public static Optional<LocalizedSpoiler> create(Spoiler spoiler, Language language) {
-        Collection<Card> cards = spoiler.getCards();
-        Map<String, Card> byName = Maps.newHashMapWithExpectedSize(cards.size() * 2);
-        SetMultimap<String, Card> collidingNames = HashMultimap.create();
-
-        for (Card card : cards) {
-            for (CardEdition edition : card.getEditions()) {
-                if (edition.getLanguage().is(language)) {
-                    for (CardEditionFace face : edition.getFaces()) {
-                        Optional<String> printedName = face.getPrintedName();
-                        if (printedName.isPresent()) {
-                            String name = CardNames.normalize(printedName.get());
-
-                            if (collidingNames.containsKey(name)) {
-                                collidingNames.put(name, card);
-                            } else {
-                                Card previous = byName.put(name, card);
-                                if (previous != null && !previous.equals(card)) {
-                                    byName.remove(name);
-                                    collidingNames.put(name, previous);
-                                    collidingNames.put(name, card);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return Optional.of(new LocalizedSpoiler(spoiler, language, byName, collidingNames))
-                .filter(LocalizedSpoiler::isNotEmpty);
-    }
-
-    private boolean isNotEmpty() {
-        return !byName.isEmpty() && !collidingNames.isEmpty();
+        LocalizedNameTable table = spoiler.getLocalizedNameTable(EnumSet.of(language));
+        return table.hasNames(language)
+                ? Optional.of(new LocalizedSpoiler(spoiler, language, table))
+                : Optional.empty();
     }
 
     public Language getLanguage() {
@@ -101,20 +55,19 @@ public final class LocalizedSpoiler {
     }
 
     public Optional<Card> lookUpByUniqueLocalizedName(String name) {
-        return Optional.ofNullable(byName.get(CardNames.normalize(name)));
+        return table.lookUpUnique(CardNames.normalize(name), language);
     }
 
     public ImmutableSet<Card> lookUpByLocalizedName(String name) {
-        return lookUpByUniqueLocalizedName(name).map(ImmutableSet::of).orElseGet(() -> collidingNames.get(name));
+        return table.lookUp(CardNames.normalize(name), language);
     }
 
     public ImmutableCollection<Card> getCardsWithCollidingNames() {
-        return collidingNames.values();
+        return table.getCardsWithCollidingNames(language);
     }
 
     public Optional<Card> lookUpByName(String name) {
-        Optional<Card> byUniqueLocalizedName = lookUpByUniqueLocalizedName(name);
-        return byUniqueLocalizedName.isPresent() ? byUniqueLocalizedName : parent.lookUpByName(name);
+        return table.lookUpWithFallback(CardNames.normalize(name), language);
     }
 
 }
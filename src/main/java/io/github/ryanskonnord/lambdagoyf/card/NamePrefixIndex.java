@@ -0,0 +1,170 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * An autocompletion index over the normalized names of every card in a {@link Spoiler}, in every language.
+ * <p>
+ * All names are packed into a single sorted character array, so a prefix is resolved with two binary searches
+ * followed by a scan of the matching range. Each name is tagged with the rank of its card, so the scan only needs
+ * to keep the best few ranks that it has seen.
+ */
+public final class NamePrefixIndex {
+
+    /**
+     * Rank cards by their EDHREC popularity, with unranked cards last.
+     */
+    public static final Comparator<Card> BY_EDHREC_RANK = Comparator
+            .comparing((Card card) -> card.getEdhrecRank().orElse(Long.MAX_VALUE))
+            .thenComparing(Comparator.naturalOrder());
+
+    private final Card[] cardsByRank;
+    private final char[] namePool;
+    private final int[] nameOffsets;
+    private final int[] nameRanks;
+
+    private NamePrefixIndex(Collection<Card> cards, Comparator<? super Card> rank) {
+        cardsByRank = cards.stream().sorted(rank).toArray(Card[]::new);
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < cardsByRank.length; i++) {
+            Card card = cardsByRank[i];
+            int cardRank = i;
+            Stream.concat(card.getAllNames(), card.getFaces().stream().map(CardFace::getName))
+                    .map(CardNames::normalize)
+                    .distinct()
+                    .forEach(name -> entries.add(Map.entry(name, cardRank)));
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+
+        int poolSize = entries.stream().mapToInt(e -> e.getKey().length()).sum();
+        namePool = new char[poolSize];
+        nameOffsets = new int[entries.size() + 1];
+        nameRanks = new int[entries.size()];
+        int offset = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<String, Integer> entry = entries.get(i);
+            String name = entry.getKey();
+            name.getChars(0, name.length(), namePool, offset);
+            nameOffsets[i] = offset;
+            nameRanks[i] = entry.getValue();
+            offset += name.length();
+        }
+        nameOffsets[entries.size()] = offset;
+    }
+
+    public static NamePrefixIndex create(Spoiler spoiler) {
+        return create(spoiler, BY_EDHREC_RANK);
+    }
+
+    /**
+     * @param rank the order in which to return cards whose names match the same prefix
+     */
+    public static NamePrefixIndex create(Spoiler spoiler, Comparator<? super Card> rank) {
+        return new NamePrefixIndex(spoiler.getCards(), rank);
+    }
+
+    private int getNameCount() {
+        return nameRanks.length;
+    }
+
+    /**
+     * Compare the indexed name at a position to a prefix, considering only as many characters as the prefix has.
+     *
+     * @return a negative value if the name sorts before all names starting with the prefix; zero if the name starts
+     * with the prefix; a positive value otherwise
+     */
+    private int compareToPrefix(int position, String prefix) {
+        int start = nameOffsets[position];
+        int length = nameOffsets[position + 1] - start;
+        int limit = Math.min(length, prefix.length());
+        for (int i = 0; i < limit; i++) {
+            int difference = namePool[start + i] - prefix.charAt(i);
+            if (difference != 0) return difference;
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    /**
+     * Find the first position whose name is not less than the prefix, if {@code inclusive}; or the first position
+     * whose name neither starts with nor is less than the prefix, if not.
+     */
+    private int search(String prefix, boolean inclusive) {
+        int low = 0;
+        int high = getNameCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareToPrefix(middle, prefix);
+            if (comparison < 0 || !inclusive && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the highest-ranked cards with a name that starts with a prefix.
+     *
+     * @param prefix the prefix, which will be normalized
+     * @param limit  the maximum number of cards to return
+     * @return the matching cards, best-ranked first
+     */
+    public ImmutableList<Card> complete(String prefix, int limit) {
+        Preconditions.checkArgument(limit >= 0);
+        if (limit == 0) return ImmutableList.of();
+        String normalizedPrefix = CardNames.normalize(prefix);
+        int start = search(normalizedPrefix, true);
+        int end = search(normalizedPrefix, false);
+
+        int[] best = new int[limit];
+        int bestCount = 0;
+        for (int position = start; position < end; position++) {
+            int rank = nameRanks[position];
+            if (bestCount == limit && rank >= best[limit - 1]) continue;
+            int insertion = Arrays.binarySearch(best, 0, bestCount, rank);
+            if (insertion >= 0) continue;
+            insertion = -insertion - 1;
+            int moved = Math.min(bestCount, limit - 1) - insertion;
+            System.arraycopy(best, insertion, best, insertion + 1, moved);
+            best[insertion] = rank;
+            bestCount = Math.min(bestCount + 1, limit);
+        }
+
+        ImmutableList.Builder<Card> result = ImmutableList.builderWithExpectedSize(bestCount);
+        for (int i = 0; i < bestCount; i++) {
+            result.add(cardsByRank[best[i]]);
+        }
+        return result.build();
+    }
+
+}
@@ -20,18 +20,29 @@
 package io.github.ryanskonnord.lambdagoyf.card;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Extracts values that are expected to be the same across a group of redundant elements, such as all printings of
+ * one card.
+ * <p>
+ * Each value is compared against the first element's and the full set of distinct values is collected only if they
+ * differ, because nearly all values agree. Disagreements are collected instead of being printed immediately, so that
+ * the caller can report them together with {@link #reportInconsistencies}.
+ */
 class RedundantBuilder<E> {
 
-    protected final ImmutableCollection<E> elements;
+    protected final ImmutableList<E> elements;
+    private List<List<?>> inconsistencies;
 
     public RedundantBuilder(Collection<E> elements) {
         this.elements = ImmutableList.copyOf(elements);
@@ -39,19 +50,47 @@ class RedundantBuilder<E> {
     }
 
     public <T> Optional<T> getCommonIfPresent(Function<? super E, Optional<T>> getter) {
-        List<Optional<T>> elements = this.elements.stream().map(getter).filter(Optional::isPresent).distinct().collect(Collectors.toList());
-        return elements.isEmpty() ? Optional.empty() : getCommon(elements);
+        Optional<T> first = Optional.empty();
+        for (E element : elements) {
+            Optional<T> value = getter.apply(element);
+            if (value.isEmpty()) continue;
+            if (first.isEmpty()) {
+                first = value;
+            } else if (!first.equals(value)) {
+                recordInconsistency(elements.stream().map(getter).filter(Optional::isPresent));
+                break;
+            }
+        }
+        return first;
     }
 
     public <T> T getCommon(Function<? super E, ? extends T> getter) {
-        return getCommon(this.elements.stream().map(getter).distinct().collect(Collectors.toList()));
+        T first = getter.apply(elements.get(0));
+        for (int i = 1; i < elements.size(); i++) {
+            if (!Objects.equals(first, getter.apply(elements.get(i)))) {
+                recordInconsistency(elements.stream().map(getter));
+                break;
+            }
+        }
+        return first;
     }
 
-    private <T> T getCommon(List<T> elements) {
-        if (elements.size() > 1) {
-            System.err.printf("Expected only one common value but got %d: %s", elements.size(), elements);
+    private void recordInconsistency(Stream<?> values) {
+        if (inconsistencies == null) {
+            inconsistencies = new ArrayList<>(2);
         }
-        return elements.get(0);
+        inconsistencies.add(values.distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * Print every value that was expected to be common but was not, if any.
+     *
+     * @param subject the object being built, to identify it in the message
+     */
+    public void reportInconsistencies(Object subject) {
+        if (inconsistencies == null) return;
+        System.err.printf("Expected only one common value for %d field(s) of %s but got: %s%n",
+                inconsistencies.size(), subject, inconsistencies);
     }
 
 }
@@ -35,11 +35,16 @@ public abstract class ScryfallEntity {
     }
 
     private static final HashFunction HASH_FUNCTION = Hashing.goodFastHash(Integer.SIZE);
+    /*
+     * Racy but benign, as with String.hashCode: every thread computes the same value, and an int is written
+     * atomically. The field is read only once per call so that a racing write can't be observed as zero.
+     */
     private transient int hash;
 
     @Override
     public final int hashCode() {
-        if (hash != 0) return hash;
+        int h = hash;
+        if (h != 0) return h;
         UUID scryfallId = getScryfallId();
         return hash = HASH_FUNCTION.newHasher()
                 .putLong(scryfallId.getMostSignificantBits())
@@ -0,0 +1,62 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sort keys that a {@link Spoiler} assigns to its cards and editions, so that comparing two objects from the same
+ * spoiler is a single integer comparison.
+ * <p>
+ * A key packs the generation of the spoiler that assigned it into its high half and the object's ordinal in the
+ * spoiler's natural ordering into its low half. Keys are comparable only if they come from the same generation.
+ * Otherwise, or if an object has no key, the caller falls back to comparing the objects' fields.
+ */
+final class SortKeys {
+
+    private SortKeys() {
+        throw new AssertionError();
+    }
+
+    static final long UNASSIGNED = 0L;
+
+    private static final AtomicInteger LATEST_GENERATION = new AtomicInteger();
+
+    static int nextGeneration() {
+        int generation;
+        do {
+            generation = LATEST_GENERATION.incrementAndGet();
+        } while (generation == 0);
+        return generation;
+    }
+
+    static long create(int generation, int ordinal) {
+        return ((long) generation << 32) | ordinal;
+    }
+
+    static int getOrdinal(long key) {
+        return key == UNASSIGNED ? -1 : (int) key;
+    }
+
+    static boolean areComparable(long key1, long key2) {
+        return key1 != UNASSIGNED && (key1 >>> 32) == (key2 >>> 32);
+    }
+
+}
@@ -19,6 +19,10 @@
 
 package io.github.ryanskonnord.lambdagoyf.card;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
@@ -36,18 +40,27 @@ import com.google.common.collect.SetMultimap;
 import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
 import io.github.ryanskonnord.lambdagoyf.card.field.Language;
 import io.github.ryanskonnord.lambdagoyf.deck.ArenaDeckEntry;
+import io.github.ryanskonnord.lambdagoyf.deck.ArenaVersionId;
 import io.github.ryanskonnord.util.MapCollectors;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -75,39 +88,158 @@ public final class Spoiler {
         return builder.build();
     }
 
+    private static final ThreadLocal<StringBuilder> NAME_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
     private final ImmutableMap<UUID, Card> cards;
     private final ImmutableMap<UUID, CardEdition> editions;
     private final ImmutableMap<String, Card> byName;
     private final ImmutableBiMap<Long, MtgoCard> byMtgoId;
-    private final ImmutableMap<Language, LocalizedSpoiler> localizedSpoilers;
     private final ImmutableSetMultimap<Expansion, CardEdition> byExpansion;
+    private final ImmutableMap<Expansion, ImmutableSetMultimap<CollectorNumber, CardEdition>> byCollectorNumber;
+    private final ImmutableSetMultimap<ArenaVersionId, ArenaCard> byArenaVersionId;
     private final ImmutableMap<String, Expansion> expansionsByName;
+    private final ImmutableList<CardEdition> editionsByOrdinal;
+    private final ImmutableList<Card> cardsByOrdinal;
+    private final Supplier<EditionIndex> editionIndex;
 
-    Spoiler(Collection<Card> cards) {
-        this.cards = checkScryfallIdUniqueness(cards.stream());
+    private final ImmutableMap<String, Duration> indexBuildTimes;
 
-        editions = checkScryfallIdUniqueness(this.cards.values().stream()
-                .flatMap(c -> c.getEditions().stream()));
+    /*
+     * Built on demand for the languages requested so far, and replaced with a larger table if another language is
+     * requested. Reads outside the lock see either null or a fully built table, because the field is volatile.
+     */
+    private volatile LocalizedNameTable localizedNameTable;
 
-        byName = buildNameDictionary(this.cards.values());
+    /**
+     * Schedules the construction of each index as soon as the indexes it depends on are done, and records how long
+     * each one took.
+     */
+    private static final class IndexBuildGraph {
+        private final Executor executor;
+        private final Map<String, Duration> buildTimes = Collections.synchronizedMap(new LinkedHashMap<>());
 
-        byMtgoId = buildMtgoIdMap(this.cards.values());
+        private IndexBuildGraph(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+        }
 
-        localizedSpoilers = EnumSet.allOf(Language.class).parallelStream()
-                .map(language -> LocalizedSpoiler.create(Spoiler.this, language))
-                .flatMap(Optional::stream)
-                .collect(MapCollectors.<LocalizedSpoiler>collecting()
-                        .indexing(LocalizedSpoiler::getLanguage)
-                        .unique().toImmutableMap());
+        private <T> Supplier<T> timed(String name, Supplier<T> task) {
+            return () -> {
+                Stopwatch stopwatch = Stopwatch.createStarted();
+                T result = task.get();
+                buildTimes.put(name, stopwatch.elapsed());
+                return result;
+            };
+        }
 
-        byExpansion = this.cards.values().stream()
-                .flatMap((Card c) -> c.getEditions().stream())
-                .sorted()
-                .collect(MapCollectors.<CardEdition>collecting()
-                        .indexing(CardEdition::getExpansion)
-                        .grouping().toImmutableSetMultimap());
+        <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+            return CompletableFuture.supplyAsync(timed(name, task), executor);
+        }
+
+        <D, T> CompletableFuture<T> after(CompletableFuture<D> dependency, String name, Function<? super D, T> task) {
+            return dependency.thenApplyAsync(d -> timed(name, () -> task.apply(d)).get(), executor);
+        }
+
+        static <T> T join(CompletableFuture<T> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+        }
+
+        ImmutableMap<String, Duration> getBuildTimes() {
+            synchronized (buildTimes) {
+                return ImmutableMap.copyOf(buildTimes);
+            }
+        }
+    }
 
-        expansionsByName = buildExpansionNameMap(byExpansion.keySet());
+    Spoiler(Collection<Card> cards) {
+        this(cards, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool on which to build indexes; parallel sorts and streams within each index also run on it
+     */
+    Spoiler(Collection<Card> cards, ForkJoinPool pool) {
+        IndexBuildGraph graph = new IndexBuildGraph(pool);
+        CompletableFuture<ImmutableMap<UUID, Card>> cardsTask = graph.submit("cards", () ->
+                checkScryfallIdUniqueness(cards.stream()));
+
+        CompletableFuture<ImmutableMap<UUID, CardEdition>> editionsTask = graph.after(cardsTask, "editions",
+                (ImmutableMap<UUID, Card> c) -> checkScryfallIdUniqueness(c.values().stream()
+                        .flatMap((Card card) -> card.getEditions().stream())));
+        CompletableFuture<ImmutableMap<String, Card>> byNameTask = graph.after(cardsTask, "byName",
+                (ImmutableMap<UUID, Card> c) -> buildNameDictionary(c.values()));
+        CompletableFuture<ImmutableBiMap<Long, MtgoCard>> byMtgoIdTask = graph.after(cardsTask, "byMtgoId",
+                (ImmutableMap<UUID, Card> c) -> buildMtgoIdMap(c.values()));
+
+        int generation = SortKeys.nextGeneration();
+        CompletableFuture<ImmutableList<CardEdition>> sortedEditionsTask = graph.after(cardsTask, "sortedEditions",
+                (ImmutableMap<UUID, Card> c) -> {
+                    CardEdition[] sorted = c.values().stream()
+                            .flatMap((Card card) -> card.getEditions().stream())
+                            .toArray(CardEdition[]::new);
+                    Arrays.parallelSort(sorted);
+                    for (int i = 0; i < sorted.length; i++) {
+                        sorted[i].assignSortKey(SortKeys.create(generation, i));
+                    }
+                    return ImmutableList.copyOf(sorted);
+                });
+        CompletableFuture<ImmutableList<Card>> sortedCardsTask = graph.after(sortedEditionsTask, "sortedCards",
+                (ImmutableList<CardEdition> sorted) -> {
+                    // Cards are ordered by their first editions
+                    ImmutableList.Builder<Card> sortedCards = ImmutableList.builder();
+                    int ordinal = 0;
+                    for (CardEdition edition : sorted) {
+                        Card card = edition.getCard();
+                        if (card.getEditions().get(0) == edition) {
+                            card.assignSortKey(SortKeys.create(generation, ordinal++));
+                            sortedCards.add(card);
+                        }
+                    }
+                    return sortedCards.build();
+                });
+        CompletableFuture<ImmutableSetMultimap<Expansion, CardEdition>> byExpansionTask = graph.after(
+                sortedEditionsTask, "byExpansion",
+                (ImmutableList<CardEdition> sorted) -> sorted.stream()
+                        .collect(MapCollectors.<CardEdition>collecting()
+                                .indexing(CardEdition::getExpansion)
+                                .grouping().toImmutableSetMultimap()));
+        CompletableFuture<ImmutableSetMultimap<ArenaVersionId, ArenaCard>> byArenaVersionIdTask = graph.after(
+                sortedEditionsTask, "byArenaVersionId",
+                (ImmutableList<CardEdition> sorted) -> sorted.stream()
+                        .map(CardEdition::getArenaCard)
+                        .flatMap(Optional::stream)
+                        .collect(MapCollectors.<ArenaCard>collecting()
+                                .indexing(ArenaCard::getVersionId)
+                                .grouping().toImmutableSetMultimap()));
+        CompletableFuture<ImmutableMap<String, Expansion>> expansionsByNameTask = graph.after(
+                byExpansionTask, "expansionsByName",
+                (ImmutableSetMultimap<Expansion, CardEdition> e) -> buildExpansionNameMap(e.keySet()));
+        CompletableFuture<ImmutableMap<Expansion, ImmutableSetMultimap<CollectorNumber, CardEdition>>> byCollectorNumberTask
+                = graph.after(byExpansionTask, "byCollectorNumber",
+                (ImmutableSetMultimap<Expansion, CardEdition> e) -> Multimaps.asMap(e).entrySet().stream()
+                        .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey,
+                                entry -> entry.getValue().stream().collect(MapCollectors.<CardEdition>collecting()
+                                        .indexing(CardEdition::getCollectorNumber)
+                                        .grouping().toImmutableSetMultimap()))));
+
+        this.cards = IndexBuildGraph.join(cardsTask);
+        editions = IndexBuildGraph.join(editionsTask);
+        byName = IndexBuildGraph.join(byNameTask);
+        byMtgoId = IndexBuildGraph.join(byMtgoIdTask);
+        editionsByOrdinal = IndexBuildGraph.join(sortedEditionsTask);
+        cardsByOrdinal = IndexBuildGraph.join(sortedCardsTask);
+        byExpansion = IndexBuildGraph.join(byExpansionTask);
+        byArenaVersionId = IndexBuildGraph.join(byArenaVersionIdTask);
+        expansionsByName = IndexBuildGraph.join(expansionsByNameTask);
+        byCollectorNumber = IndexBuildGraph.join(byCollectorNumberTask);
+
+        indexBuildTimes = graph.getBuildTimes();
+
+        editionIndex = Suppliers.memoize(() -> new EditionIndex(editionsByOrdinal));
     }
 
     private static ImmutableMap<String, Card> buildNameDictionary(Collection<Card> cards) {
@@ -245,27 +377,116 @@ public final class Spoiler {
         return Optional.ofNullable(byName.get(normalize(name)));
     }
 
+    /**
+     * Look up a card by a name that is being read from a larger buffer, normalizing it in a reusable buffer rather
+     * than copying it first.
+     */
+    public Optional<Card> lookUpByName(CharSequence name) {
+        if (name instanceof String) return lookUpByName((String) name);
+        StringBuilder buffer = NAME_BUFFER.get();
+        buffer.setLength(0);
+        CardNames.normalize(name, buffer);
+        return Optional.ofNullable(byName.get(buffer.toString()));
+    }
+
+    ImmutableMap<String, Card> getNameDictionary() {
+        return byName;
+    }
+
+    /**
+     * Get the table of names printed in some languages, building or extending it if necessary. Each build is a
+     * single pass over every edition, so it is put off until a language is requested.
+     */
+    LocalizedNameTable getLocalizedNameTable(Set<Language> languages) {
+        int mask = LocalizedNameTable.getMask(languages);
+        LocalizedNameTable table = localizedNameTable;
+        if (table != null && table.covers(mask)) return table;
+        synchronized (this) {
+            table = localizedNameTable;
+            if (table == null || !table.covers(mask)) {
+                Set<Language> union = EnumSet.copyOf(languages);
+                if (table != null) {
+                    for (Language language : Language.values()) {
+                        if (table.covers(LocalizedNameTable.getBit(language))) {
+                            union.add(language);
+                        }
+                    }
+                }
+                localizedNameTable = table = LocalizedNameTable.build(this, union);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Get the spoiler of names printed in one language.
+     *
+     * @return the localized spoiler, or empty if no cards were printed in the language
+     */
+    public Optional<LocalizedSpoiler> getLocalizedSpoiler(Language language) {
+        return LocalizedSpoiler.create(this, language);
+    }
+
+    /**
+     * Build the localized names for some languages ahead of when they will be requested.
+     */
+    public void precomputeLocalizedSpoilers(Collection<Language> languages) {
+        if (!languages.isEmpty()) {
+            getLocalizedNameTable(EnumSet.copyOf(languages));
+        }
+    }
+
+    /**
+     * @return how long it took to build each of the spoiler's indexes, in order of completion
+     */
+    public ImmutableMap<String, Duration> getIndexBuildTimes() {
+        return indexBuildTimes;
+    }
+
     public Optional<MtgoCard> lookUpByMtgoId(long mtgoId) {
         return Optional.ofNullable(byMtgoId.get(mtgoId));
     }
 
     public Optional<ArenaCard> lookUpByArenaDeckEntry(ArenaDeckEntry entry) {
+        Optional<ArenaVersionId> versionId = entry.getVersionId();
+        if (versionId.isEmpty()) return Optional.empty();
         return lookUpByName(entry.getCardName()).flatMap((Card card) ->
-                card.getEditions().stream()
-                        .map(CardEdition::getArenaCard)
-                        .flatMap(Optional::stream)
+                byArenaVersionId.get(versionId.get()).stream()
+                        .filter(arenaCard -> arenaCard.getCard().equals(card))
                         .filter(arenaCard -> arenaCard.getDeckEntry().equals(entry))
                         .collect(MoreCollectors.toOptional()));
     }
 
+    public CardEdition getEditionByOrdinal(int ordinal) {
+        return editionsByOrdinal.get(ordinal);
+    }
+
+    public Card getCardByOrdinal(int ordinal) {
+        return cardsByOrdinal.get(ordinal);
+    }
+
+    /**
+     * @return every card, in natural order, where each card's position is its ordinal
+     */
+    public ImmutableList<Card> getCardsByOrdinal() {
+        return cardsByOrdinal;
+    }
+
+    /**
+     * @return secondary indexes over every edition, which are built the first time they are requested
+     */
+    public EditionIndex getEditionIndex() {
+        return editionIndex.get();
+    }
+
     public ImmutableSet<CardEdition> getAllFromExpansion(Expansion expansion) {
         return byExpansion.get(expansion);
     }
 
     public Optional<CardEdition> getByCollectorNumber(Expansion expansion, CollectorNumber number) {
-        return getAllFromExpansion(expansion).stream()
-                .filter(e -> e.getCollectorNumber().equals(number))
-                .collect(MoreCollectors.toOptional());
+        ImmutableSetMultimap<CollectorNumber, CardEdition> editionsByNumber = byCollectorNumber.get(expansion);
+        if (editionsByNumber == null) return Optional.empty();
+        return editionsByNumber.get(number).stream().collect(MoreCollectors.toOptional());
     }
 
     public ImmutableSet<Expansion> getExpansions() {
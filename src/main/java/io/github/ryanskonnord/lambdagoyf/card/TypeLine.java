@@ -47,12 +47,39 @@ public final class TypeLine implements Comparable<TypeLine> {
     private final WordSet<CardType> cardTypes;
     private final ImmutableList<String> subtypes;
 
+    // Bits indexed by enum ordinal, for the types that are recognized as enum constants
+    private final int supertypeMask;
+    private final int cardTypeMask;
+
+    static {
+        if (CardSupertype.values().length > Integer.SIZE || CardType.values().length > Integer.SIZE) {
+            throw new AssertionError("Too many types for the bitmask");
+        }
+    }
+
+    private static final int PERMANENT_TYPE_MASK = EnumSet.allOf(CardType.class).stream()
+            .filter(CardType::isPermanentType)
+            .mapToInt(type -> 1 << type.ordinal())
+            .reduce(0, (a, b) -> a | b);
+
     TypeLine(WordSet<CardSupertype> supertypes,
              WordSet<CardType> cardTypes,
              Collection<String> subtypes) {
         this.supertypes = Objects.requireNonNull(supertypes);
         this.cardTypes = Objects.requireNonNull(cardTypes);
         this.subtypes = ImmutableList.copyOf(subtypes);
+        this.supertypeMask = getMask(supertypes);
+        this.cardTypeMask = getMask(cardTypes);
+    }
+
+    private static <E extends Enum<E> & WordType> int getMask(WordSet<E> words) {
+        int mask = 0;
+        for (Word<E> word : words.asList()) {
+            if (word.getEnum().isPresent()) {
+                mask |= 1 << word.getEnum().get().ordinal();
+            }
+        }
+        return mask;
     }
 
     private static final char DASH = '\u2014';
@@ -143,11 +170,11 @@ public final class TypeLine implements Comparable<TypeLine> {
 
 
     public boolean is(CardSupertype type) {
-        return supertypes.contains(type);
+        return (supertypeMask & (1 << type.ordinal())) != 0;
     }
 
     public boolean is(CardType type) {
-        return cardTypes.contains(type);
+        return (cardTypeMask & (1 << type.ordinal())) != 0;
     }
 
     public boolean isSubtype(String type) {
@@ -172,7 +199,7 @@ public final class TypeLine implements Comparable<TypeLine> {
     }
 
     public boolean isPermanentCard() {
-        return cardTypes.asList().stream().anyMatch(t -> t.getEnum().filter(CardType::isPermanentType).isPresent());
+        return (cardTypeMask & PERMANENT_TYPE_MASK) != 0;
     }
 
     @Override
@@ -28,15 +28,24 @@ import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * A power, toughness, or loyalty value as printed, which may not be a number.
+ * <p>
+ * The value is packed into one long that orders numeric values by number ahead of all non-numeric values, so two
+ * numeric values are compared by that long alone.
+ */
 public final class WrittenNumber implements Comparable<WrittenNumber> {
 
+    private static final long NON_NUMERIC = 1L << Integer.SIZE;
+
     private final String writtenValue;
-    private final OptionalInt numericValue;
+    private final long key;
 
     private WrittenNumber(String writtenValue) {
         Preconditions.checkArgument(!writtenValue.isEmpty());
         this.writtenValue = writtenValue;
-        this.numericValue = parseIfNumeric(writtenValue);
+        OptionalInt numericValue = parseIfNumeric(writtenValue);
+        this.key = numericValue.isPresent() ? (long) numericValue.getAsInt() - Integer.MIN_VALUE : NON_NUMERIC;
     }
 
     private static final ImmutableMap<String, WrittenNumber> FLYWEIGHTS = Stream
@@ -69,16 +78,18 @@ public final class WrittenNumber implements Comparable<WrittenNumber> {
         return writtenValue;
     }
 
+    private boolean isNumeric() {
+        return key != NON_NUMERIC;
+    }
+
     public OptionalInt getNumericValue() {
-        return numericValue;
+        return isNumeric() ? OptionalInt.of((int) (key + Integer.MIN_VALUE)) : OptionalInt.empty();
     }
 
     @Override
     public int compareTo(WrittenNumber that) {
         return (this == that) ? 0
-                : this.numericValue.isPresent() && that.numericValue.isPresent()
-                ? this.numericValue.getAsInt() - that.numericValue.getAsInt()
-                : this.numericValue.isPresent() ? -1 : that.numericValue.isPresent() ? 1
+                : this.isNumeric() || that.isNumeric() ? Long.compare(this.key, that.key)
                 : this.writtenValue.compareTo(that.writtenValue);
     }
 
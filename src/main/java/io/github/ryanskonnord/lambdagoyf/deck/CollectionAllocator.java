@@ -0,0 +1,128 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.deck;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Multiset;
+import io.github.ryanskonnord.lambdagoyf.card.Card;
+import io.github.ryanskonnord.lambdagoyf.card.CardVersion;
+import io.github.ryanskonnord.lambdagoyf.card.DeckElement;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Constructs a batch of decks from one collection, so that no copy in the collection is used by more than one deck.
+ * <p>
+ * Decks draw from a shared ledger of the copies that remain. The allocation is greedy: each deck in turn takes its
+ * versions in the constructor's preference order from whatever earlier decks have left, as {@link
+ * DeckConstructor#createDeck} does against a collection, and never gives them back. Decks earlier in the batch
+ * therefore have priority, and the result is not necessarily the best one over the whole batch. For example, if one
+ * deck wants two copies of a card and a later deck wants four, and the collection has four of the most preferred
+ * version, two of the next and four of the last, the first deck takes two of the most preferred version and the second
+ * deck falls back to the last one, even though giving the first deck the next version would have left all four of the
+ * most preferred version for the second deck. Reorder the batch to change which decks win such conflicts.
+ * <p>
+ * Any copies that a deck uses beyond what remains in the ledger are reported as shortages. The ledger is charged with
+ * the versions the constructor chose from it. The constructor's card version and output transformations are applied
+ * to the decks afterward, so the returned decks may contain versions other than the ones charged. Transformations
+ * that look at a collection of their own, such as basic land replacements, are not aware of the ledger. The
+ * constructor's own availability is ignored.
+ */
+public final class CollectionAllocator<V extends CardVersion, T extends DeckElement<V>> {
+
+    private final DeckConstructor<V, T> deckConstructor;
+    private final ImmutableMultiset<T> collection;
+
+    public CollectionAllocator(DeckConstructor<V, T> deckConstructor, Multiset<? extends T> collection) {
+        this.deckConstructor = Objects.requireNonNull(deckConstructor);
+        this.collection = ImmutableMultiset.copyOf(collection);
+    }
+
+    public static final class Allocation<T> {
+        private final ImmutableList<Deck<T>> decks;
+        private final ImmutableList<ImmutableMultiset<T>> shortages;
+        private final ImmutableMultiset<T> unallocated;
+
+        private Allocation(List<Deck<T>> decks, List<ImmutableMultiset<T>> shortages, Multiset<T> unallocated) {
+            this.decks = ImmutableList.copyOf(decks);
+            this.shortages = ImmutableList.copyOf(shortages);
+            this.unallocated = ImmutableMultiset.copyOf(unallocated);
+        }
+
+        /**
+         * @return the constructed decks, in the same order as the input
+         */
+        public ImmutableList<Deck<T>> getDecks() {
+            return decks;
+        }
+
+        /**
+         * @return for each deck, in the same order as the input, the copies it uses that the collection couldn't
+         * cover
+         */
+        public ImmutableList<ImmutableMultiset<T>> getShortages() {
+            return shortages;
+        }
+
+        public ImmutableMultiset<T> getTotalShortage() {
+            ImmutableMultiset.Builder<T> total = ImmutableMultiset.builder();
+            shortages.forEach(total::addAll);
+            return total.build();
+        }
+
+        public boolean hasShortages() {
+            return shortages.stream().anyMatch(s -> !s.isEmpty());
+        }
+
+        /**
+         * @return the copies in the collection that no deck uses
+         */
+        public ImmutableMultiset<T> getUnallocated() {
+            return unallocated;
+        }
+    }
+
+    public Allocation<T> allocate(Collection<Deck<Card>> unversionedDecks) {
+        Multiset<T> ledger = HashMultiset.create(collection);
+        ImmutableList.Builder<Deck<T>> decks = ImmutableList.builderWithExpectedSize(unversionedDecks.size());
+        ImmutableList.Builder<ImmutableMultiset<T>> shortages = ImmutableList.builderWithExpectedSize(unversionedDecks.size());
+        for (Deck<Card> unversionedDeck : unversionedDecks) {
+            Deck<T> chosenDeck = deckConstructor.chooseVersions(unversionedDeck, ledger::count);
+            ImmutableMultiset.Builder<T> shortage = ImmutableMultiset.builder();
+            for (Multiset.Entry<T> entry : chosenDeck.getAllCards().entrySet()) {
+                T element = entry.getElement();
+                int wanted = entry.getCount();
+                int remaining = ledger.count(element);
+                if (wanted > remaining) {
+                    shortage.addCopies(element, wanted - remaining);
+                }
+                ledger.remove(element, Math.min(wanted, remaining));
+            }
+            decks.add(deckConstructor.finishDeck(chosenDeck));
+            shortages.add(shortage.build());
+        }
+        return new Allocation<>(decks.build(), shortages.build(), ledger);
+    }
+
+}
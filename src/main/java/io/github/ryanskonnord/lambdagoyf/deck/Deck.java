@@ -28,6 +28,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Multisets;
 import com.google.common.collect.TreeMultiset;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import io.github.ryanskonnord.lambdagoyf.card.Card;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
 import io.github.ryanskonnord.lambdagoyf.card.CardIdentity;
@@ -44,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -148,6 +152,7 @@ public final class Deck<C> {
 
 
     private final ImmutableMap<Section, ImmutableMultiset<C>> sectionMap;
+    private volatile HashCode fingerprint;
 
     private Deck(Map<Section, Multiset<C>> sectionMap) {
         Map<Section, ImmutableMultiset<C>> builder = new EnumMap<>(Section.class);
@@ -272,6 +277,38 @@ public final class Deck<C> {
     }
 
 
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Get a 128-bit fingerprint of the number of copies of each card in each section. It doesn't depend on the order of
+     * the cards, and is computed only once for each deck.
+     */
+    public static <C extends CardIdentity> HashCode getFingerprint(Deck<C> deck) {
+        HashCode fingerprint = deck.fingerprint;
+        if (fingerprint == null) {
+            deck.fingerprint = fingerprint = computeFingerprint(deck);
+        }
+        return fingerprint;
+    }
+
+    private static <C extends CardIdentity> HashCode computeFingerprint(Deck<C> deck) {
+        List<HashCode> entryHashes = new ArrayList<>();
+        for (Map.Entry<Section, ImmutableMultiset<C>> sectionEntry : deck.sectionMap.entrySet()) {
+            int section = sectionEntry.getKey().ordinal();
+            for (Multiset.Entry<C> cardEntry : sectionEntry.getValue().entrySet()) {
+                UUID id = cardEntry.getElement().getCard().getScryfallId();
+                entryHashes.add(FINGERPRINT_FUNCTION.newHasher()
+                        .putInt(section)
+                        .putInt(cardEntry.getCount())
+                        .putLong(id.getMostSignificantBits())
+                        .putLong(id.getLeastSignificantBits())
+                        .hash());
+            }
+        }
+        return entryHashes.isEmpty() ? FINGERPRINT_FUNCTION.hashInt(0) : Hashing.combineUnordered(entryHashes);
+    }
+
+
     private static <C, D> ImmutableMultiset<D> transformMultiset(Multiset<C> multiset,
                                                                  Function<? super C, ? extends D> function) {
         Objects.requireNonNull(function);
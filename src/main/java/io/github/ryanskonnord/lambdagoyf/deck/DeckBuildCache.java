@@ -0,0 +1,206 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.deck;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A persistent record of the inputs from which each generated deck file was last written, so that a deck only needs
+ * to be regenerated when one of its inputs has changed.
+ * <p>
+ * The record is a properties file that maps each output file, relative to the file's own directory, to a digest of
+ * the deck's source file together with a set of shared {@link Inputs}, such as the card data snapshot, the collection
+ * and the deck constructor's configuration. An output file is up to date only if it exists and its recorded digest
+ * matches. The file is replaced atomically when saved, so an interrupted run leaves the previous record intact.
+ */
+public final class DeckBuildCache {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+    private final Path indexFile;
+    private final Path baseDirectory;
+    private final ConcurrentMap<String, String> digests;
+    private volatile boolean isModified = false;
+
+    private DeckBuildCache(Path indexFile, Map<String, String> digests) {
+        this.indexFile = Objects.requireNonNull(indexFile);
+        this.baseDirectory = indexFile.toAbsolutePath().getParent();
+        this.digests = new ConcurrentHashMap<>(digests);
+    }
+
+    /**
+     * Load a cache from an index file, or start an empty one if the file does not exist yet.
+     */
+    public static DeckBuildCache load(Path indexFile) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(indexFile)) {
+            try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        ImmutableMap.Builder<String, String> digests = ImmutableMap.builder();
+        properties.stringPropertyNames().forEach(key -> digests.put(key, properties.getProperty(key)));
+        return new DeckBuildCache(indexFile, digests.build());
+    }
+
+    public static HashCode hashFile(Path path) throws IOException {
+        return MoreFiles.asByteSource(path).hash(HASH_FUNCTION);
+    }
+
+    /**
+     * Hash the classpath entry that a class was loaded from, which is either a jar file or a directory of class files
+     * such as {@code target/classes}. This changes whenever any class in the entry is recompiled, including the
+     * class's nested classes and the library code that is built along with it, which makes it a conservative
+     * fingerprint for configuration that is written as code.
+     */
+    public static HashCode hashClasspathEntry(Class<?> type) throws IOException {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            throw new IllegalArgumentException("No classpath entry found for " + type.getName());
+        }
+        Path location;
+        try {
+            location = Path.of(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+        if (!Files.isDirectory(location)) {
+            return hashFile(location);
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(location)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        for (Path file : files) {
+            hasher.putString(location.relativize(file).toString().replace('\\', '/'), StandardCharsets.UTF_8)
+                    .putByte((byte) 0)
+                    .putBytes(hashFile(file).asBytes());
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * The labeled inputs that a group of decks have in common.
+     */
+    public static final class Inputs {
+        private static final Inputs EMPTY = new Inputs(ImmutableMap.of());
+
+        private final ImmutableMap<String, String> values;
+
+        private Inputs(ImmutableMap<String, String> values) {
+            this.values = values;
+        }
+
+        public static Inputs empty() {
+            return EMPTY;
+        }
+
+        /**
+         * @return a copy of these inputs with one more value, which is identified by its string form
+         */
+        public Inputs with(String label, Object value) {
+            Objects.requireNonNull(label);
+            Objects.requireNonNull(value);
+            return new Inputs(ImmutableMap.<String, String>builder()
+                    .putAll(values).put(label, value.toString())
+                    .buildOrThrow());
+        }
+
+        /**
+         * Compute the digest of a deck built from a source file with these inputs.
+         */
+        public HashCode getKey(Path sourceFile) throws IOException {
+            Hasher hasher = HASH_FUNCTION.newHasher();
+            values.forEach((label, value) -> hasher
+                    .putString(label, StandardCharsets.UTF_8).putByte((byte) 0)
+                    .putString(value, StandardCharsets.UTF_8).putByte((byte) 0));
+            hasher.putBytes(hashFile(sourceFile).asBytes());
+            return hasher.hash();
+        }
+
+        @Override
+        public String toString() {
+            return values.toString();
+        }
+    }
+
+    private String getIndexKey(Path outputFile) {
+        Path absolute = outputFile.toAbsolutePath();
+        Path key = absolute.startsWith(baseDirectory) ? baseDirectory.relativize(absolute) : absolute;
+        return key.toString().replace('\\', '/');
+    }
+
+    public boolean isUpToDate(Path outputFile, HashCode key) {
+        return key.toString().equals(digests.get(getIndexKey(outputFile))) && Files.exists(outputFile);
+    }
+
+    /**
+     * Record that an output file has been written from the given inputs. The record is not persisted until
+     * {@link #save} is called.
+     */
+    public void record(Path outputFile, HashCode key) {
+        digests.put(getIndexKey(outputFile), key.toString());
+        isModified = true;
+    }
+
+    public void save() throws IOException {
+        if (!isModified) return;
+        Properties properties = new Properties();
+        properties.putAll(digests);
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                properties.store(outputStream, null);
+            }
+            Files.move(temporaryFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        isModified = false;
+    }
+
+}
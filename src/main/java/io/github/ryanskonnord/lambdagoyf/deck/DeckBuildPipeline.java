@@ -0,0 +1,433 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.deck;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import com.google.common.hash.HashCode;
+import io.github.ryanskonnord.lambdagoyf.card.Card;
+import io.github.ryanskonnord.lambdagoyf.card.CardVersion;
+import io.github.ryanskonnord.lambdagoyf.card.DeckElement;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Reads, constructs and writes a batch of decks on a fixed number of worker threads.
+ * <p>
+ * Each output file is written to a temporary file in the same directory and then moved into place, so an
+ * interrupted build never leaves a truncated deck behind. A deck that fails does not stop the others; its failure is
+ * collected into the {@link Report} along with every other deck's result.
+ */
+public final class DeckBuildPipeline<V extends CardVersion, T extends DeckElement<V>> {
+
+    @FunctionalInterface
+    public static interface DeckReader {
+        /**
+         * @param unresolvedNames receives each card name that could not be resolved
+         */
+        Deck<Card> read(Path source, Consumer<? super String> unresolvedNames) throws IOException;
+    }
+
+    @FunctionalInterface
+    public static interface DeckWriter<T> {
+        void write(OutputStream outputStream, Deck<T> deck) throws IOException;
+    }
+
+    public static final class Job {
+        private final String name;
+        private final Path source;
+        private final Path destination;
+
+        public Job(String name, Path source, Path destination) {
+            this.name = Objects.requireNonNull(name);
+            this.source = Objects.requireNonNull(source);
+            this.destination = Objects.requireNonNull(destination);
+        }
+
+        public static Job fromDeckSeeker(DeckSeeker.Entry entry, DeckSeeker.DeckFileFormat outputFormat) {
+            return new Job(entry.getName(), entry.getPath(DeckSeeker.DeckFileFormat.SOURCE), entry.getPath(outputFormat));
+        }
+
+        public static Stream<Job> fromDeckSeeker(Collection<DeckSeeker.Entry> entries,
+                                                 DeckSeeker.DeckFileFormat outputFormat) {
+            return entries.stream()
+                    .filter(e -> e.hasFile(DeckSeeker.DeckFileFormat.SOURCE))
+                    .map(e -> fromDeckSeeker(e, outputFormat));
+        }
+
+        public static Stream<Job> fromArenaDeckSeeker(Stream<ArenaDeckSeeker.Entry> entries) {
+            return entries.map(e -> new Job(e.getSource().getFileName().toString(), e.getSource(), e.getDestination()));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getSource() {
+            return source;
+        }
+
+        public Path getDestination() {
+            return destination;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static enum Status {
+        WRITTEN, SKIPPED, FAILED
+    }
+
+    public static final class Result<T> {
+        private final Job job;
+        private final Status status;
+        private final Duration elapsed;
+        private final ImmutableSet<String> unresolvedNames;
+        private final ImmutableMultiset<T> shortages;
+        private final Optional<Exception> exception;
+
+        private Result(Job job, Status status, Duration elapsed, Collection<String> unresolvedNames,
+                       Multiset<T> shortages, Exception exception) {
+            this.job = Objects.requireNonNull(job);
+            this.status = Objects.requireNonNull(status);
+            this.elapsed = Objects.requireNonNull(elapsed);
+            this.unresolvedNames = ImmutableSet.copyOf(unresolvedNames);
+            this.shortages = ImmutableMultiset.copyOf(shortages);
+            this.exception = Optional.ofNullable(exception);
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public ImmutableSet<String> getUnresolvedNames() {
+            return unresolvedNames;
+        }
+
+        /**
+         * @return the copies in the written deck that exceed the pipeline's availability
+         */
+        public ImmutableMultiset<T> getShortages() {
+            return shortages;
+        }
+
+        public Optional<Exception> getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("job", job)
+                    .add("status", status)
+                    .add("elapsed", elapsed)
+                    .toString();
+        }
+    }
+
+    public static final class Report<T> {
+        private final ImmutableList<Result<T>> results;
+        private final Duration elapsed;
+
+        private Report(List<Result<T>> results, Duration elapsed) {
+            this.results = ImmutableList.copyOf(results);
+            this.elapsed = Objects.requireNonNull(elapsed);
+        }
+
+        /**
+         * @return the result of each job, in the order in which the jobs were given
+         */
+        public ImmutableList<Result<T>> getResults() {
+            return results;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public Stream<Result<T>> getResults(Status status) {
+            return results.stream().filter(r -> r.getStatus() == status);
+        }
+
+        public boolean hasFailures() {
+            return getResults(Status.FAILED).findAny().isPresent();
+        }
+
+        public void printSummary(PrintStream out) {
+            for (Result<T> result : results) {
+                if (result.getStatus() == Status.FAILED) {
+                    out.println("\nError on deck file: " + result.getJob().getName());
+                    if (!result.getUnresolvedNames().isEmpty()) {
+                        out.println("Unrecognized card names: " + result.getUnresolvedNames());
+                    }
+                    result.getException().ifPresent(e -> e.printStackTrace(out));
+                } else if (!result.getShortages().isEmpty()) {
+                    out.printf("Short on %s: %s%n", result.getJob().getName(), result.getShortages());
+                }
+            }
+            out.printf("Wrote %d, skipped %d, failed %d decks in %s%n",
+                    getResults(Status.WRITTEN).count(), getResults(Status.SKIPPED).count(),
+                    getResults(Status.FAILED).count(), elapsed);
+        }
+    }
+
+    private final DeckConstructor<V, T> deckConstructor;
+    private final DeckReader reader;
+    private final DeckWriter<T> writer;
+    private final int parallelism;
+    private final ToIntFunction<? super T> availability;
+    private final ImmutableList<Path> mirrorDirectories;
+    private final Optional<DeckBuildCache> buildCache;
+    private final DeckBuildCache.Inputs buildInputs;
+    private final boolean skipsExistingOutputs;
+
+    private DeckBuildPipeline(Builder<V, T> builder) {
+        this.deckConstructor = Objects.requireNonNull(builder.deckConstructor);
+        this.reader = Objects.requireNonNull(builder.reader);
+        this.writer = Objects.requireNonNull(builder.writer);
+        this.parallelism = builder.parallelism;
+        this.availability = builder.availability;
+        this.mirrorDirectories = builder.mirrorDirectories.build();
+        this.buildCache = Optional.ofNullable(builder.buildCache);
+        this.buildInputs = builder.buildInputs;
+        this.skipsExistingOutputs = builder.skipsExistingOutputs;
+    }
+
+    public static final class Builder<V extends CardVersion, T extends DeckElement<V>> {
+        private final DeckConstructor<V, T> deckConstructor;
+        private final DeckReader reader;
+        private final DeckWriter<T> writer;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private ToIntFunction<? super T> availability = t -> Integer.MAX_VALUE;
+        private final ImmutableList.Builder<Path> mirrorDirectories = ImmutableList.builder();
+        private DeckBuildCache buildCache = null;
+        private DeckBuildCache.Inputs buildInputs = DeckBuildCache.Inputs.empty();
+        private boolean skipsExistingOutputs = false;
+
+        public Builder(DeckConstructor<V, T> deckConstructor, DeckReader reader, DeckWriter<T> writer) {
+            this.deckConstructor = Objects.requireNonNull(deckConstructor);
+            this.reader = Objects.requireNonNull(reader);
+            this.writer = Objects.requireNonNull(writer);
+        }
+
+        public Builder<V, T> setParallelism(int parallelism) {
+            Preconditions.checkArgument(parallelism > 0);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Report a shortage for copies that a written deck uses beyond this availability. This does not change how
+         * decks are constructed.
+         */
+        public Builder<V, T> setAvailability(ToIntFunction<? super T> availability) {
+            this.availability = Objects.requireNonNull(availability);
+            return this;
+        }
+
+        public Builder<V, T> setAvailableCollection(Multiset<? extends T> collection) {
+            return setAvailability(collection::count);
+        }
+
+        /**
+         * Also copy each written deck into a directory.
+         */
+        public Builder<V, T> addMirrorDirectory(Path directory) {
+            mirrorDirectories.add(directory);
+            return this;
+        }
+
+        /**
+         * Skip decks that are up to date in the cache, and record each deck that is written. The caller is
+         * responsible for saving the cache.
+         */
+        public Builder<V, T> setBuildCache(DeckBuildCache buildCache, DeckBuildCache.Inputs inputs) {
+            this.buildCache = Objects.requireNonNull(buildCache);
+            this.buildInputs = Objects.requireNonNull(inputs);
+            return this;
+        }
+
+        /**
+         * Skip decks whose output file exists, regardless of its inputs.
+         */
+        public Builder<V, T> skipExistingOutputs() {
+            this.skipsExistingOutputs = true;
+            return this;
+        }
+
+        public DeckBuildPipeline<V, T> build() {
+            return new DeckBuildPipeline<>(this);
+        }
+    }
+
+    private static void moveIntoPlace(Path temporaryFile, Path destination) throws IOException {
+        try {
+            Files.move(temporaryFile, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path createTemporarySibling(Path destination) throws IOException {
+        Path directory = destination.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, ".tmp-", "-" + destination.getFileName());
+    }
+
+    private void writeAtomically(Deck<T> deck, Path destination) throws IOException {
+        Path temporaryFile = createTemporarySibling(destination);
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                writer.write(outputStream, deck);
+            }
+            moveIntoPlace(temporaryFile, destination);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void copyAtomically(Path source, Path destination) throws IOException {
+        Path temporaryFile = createTemporarySibling(destination);
+        try {
+            Files.copy(source, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(temporaryFile, destination);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /*
+     * A skipped deck's output is current, but a mirror copy may have been deleted since it was written.
+     */
+    private void restoreMissingMirrors(Path destination) throws IOException {
+        for (Path mirrorDirectory : mirrorDirectories) {
+            Path mirror = mirrorDirectory.resolve(destination.getFileName());
+            if (!Files.exists(mirror)) {
+                copyAtomically(destination, mirror);
+            }
+        }
+    }
+
+    private Multiset<T> findShortages(Deck<T> deck) {
+        ImmutableMultiset.Builder<T> shortages = ImmutableMultiset.builder();
+        for (Multiset.Entry<T> entry : deck.getAllCards().entrySet()) {
+            int available = availability.applyAsInt(entry.getElement());
+            if (entry.getCount() > available) {
+                shortages.addCopies(entry.getElement(), entry.getCount() - Math.max(available, 0));
+            }
+        }
+        return shortages.build();
+    }
+
+    private Result<T> process(Job job) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Set<String> unresolvedNames = new TreeSet<>();
+        try {
+            Path destination = job.getDestination();
+            if (skipsExistingOutputs && Files.exists(destination)) {
+                restoreMissingMirrors(destination);
+                return new Result<>(job, Status.SKIPPED, stopwatch.elapsed(), unresolvedNames, ImmutableMultiset.of(), null);
+            }
+            HashCode buildKey = null;
+            if (buildCache.isPresent()) {
+                buildKey = buildInputs.getKey(job.getSource());
+                if (buildCache.get().isUpToDate(destination, buildKey)) {
+                    restoreMissingMirrors(destination);
+                    return new Result<>(job, Status.SKIPPED, stopwatch.elapsed(), unresolvedNames, ImmutableMultiset.of(), null);
+                }
+            }
+
+            Deck<Card> unversionedDeck = reader.read(job.getSource(), unresolvedNames::add);
+            if (!unresolvedNames.isEmpty()) {
+                return new Result<>(job, Status.FAILED, stopwatch.elapsed(), unresolvedNames, ImmutableMultiset.of(), null);
+            }
+            Deck<T> deck = deckConstructor.createDeck(unversionedDeck);
+            writeAtomically(deck, destination);
+            for (Path mirrorDirectory : mirrorDirectories) {
+                copyAtomically(destination, mirrorDirectory.resolve(destination.getFileName()));
+            }
+            if (buildKey != null) {
+                buildCache.get().record(destination, buildKey);
+            }
+            return new Result<>(job, Status.WRITTEN, stopwatch.elapsed(), unresolvedNames, findShortages(deck), null);
+        } catch (Exception e) {
+            return new Result<>(job, Status.FAILED, stopwatch.elapsed(), unresolvedNames, ImmutableMultiset.of(), e);
+        }
+    }
+
+    public Report<T> run(Stream<Job> jobs) throws InterruptedException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Result<T>>> futures = new ArrayList<>();
+            jobs.forEachOrdered(job -> futures.add(executor.submit(() -> process(job))));
+            List<Result<T>> results = new ArrayList<>(futures.size());
+            for (Future<Result<T>> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return new Report<>(results, stopwatch.elapsed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
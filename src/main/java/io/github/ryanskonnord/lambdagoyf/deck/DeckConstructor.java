@@ -22,7 +22,6 @@ package io.github.ryanskonnord.lambdagoyf.deck;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multiset;
-import com.google.common.collect.Sets;
 import io.github.ryanskonnord.lambdagoyf.card.ArenaCard;
 import io.github.ryanskonnord.lambdagoyf.card.Card;
 import io.github.ryanskonnord.lambdagoyf.card.CardVersion;
@@ -34,14 +33,19 @@ import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
 import io.github.ryanskonnord.util.ComparatorMutator;
 import io.github.ryanskonnord.util.OrderingUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -68,6 +72,9 @@ public final class DeckConstructor<V extends CardVersion, T extends DeckElement<
     private final UnaryOperator<Deck<T>> outputTransformation;
     private final Function<Card, Stream<T>> fallback;
 
+    private final Comparator<T> versionPreference;
+    private final ConcurrentMap<Card, CardVersions<T>> versionCache = new ConcurrentHashMap<>();
+
     private DeckConstructor(Builder<V, T> builder) {
         this.versionExtractor = Objects.requireNonNull(builder.versionExtractor);
         this.outputConstructor = Objects.requireNonNull(builder.outputConstructor);
@@ -78,14 +85,15 @@ public final class DeckConstructor<V extends CardVersion, T extends DeckElement<
         this.cardVersionTransformation = Objects.requireNonNull(builder.cardVersionTransformation);
         this.outputTransformation = Objects.requireNonNull(builder.outputTransformation);
         this.fallback = Objects.requireNonNull(builder.fallback);
+        this.versionPreference = PreferenceBuilder.onKey((T element) -> element.getVersion().orElseThrow(), preference);
     }
 
     public static final class Builder<V extends CardVersion, T extends DeckElement<V>> {
         private final CardVersionExtractor<V> versionExtractor;
         private final Function<? super V, T> outputConstructor;
         private ToIntFunction<? super T> availability = getUnlimitedAvailability();
-        private ComparatorMutator<V, Builder<V, T>> preference = new ComparatorMutator<>(this);
-        private ComparatorMutator<V, Builder<V, T>> overflow = new ComparatorMutator<>(this);
+        private ComparatorMutator<V, Builder<V, T>> preference = new ComparatorMutator<>(this, PreferenceBuilder::concat);
+        private ComparatorMutator<V, Builder<V, T>> overflow = new ComparatorMutator<>(this, PreferenceBuilder::concat);
         private UnaryOperator<Deck<Card>> deckTransformation = UnaryOperator.identity();
         private UnaryOperator<V> cardVersionTransformation = UnaryOperator.identity();
         private UnaryOperator<Deck<T>> outputTransformation = UnaryOperator.identity();
@@ -177,81 +185,169 @@ public final class DeckConstructor<V extends CardVersion, T extends DeckElement<
         return element.getVersion().map(cardVersionTransformation).map(outputConstructor).orElse(element);
     }
 
+    /**
+     * Construct versioned decks for many unversioned decks at once. Decks are constructed in parallel, so all
+     * transformations and functions given to this constructor must be safe to call from multiple threads.
+     *
+     * @return the constructed decks, in the same order as the input
+     */
+    public ImmutableList<Deck<T>> createDecks(Stream<Deck<Card>> unversionedDecks) {
+        return unversionedDecks.parallel()
+                .map(this::createDeck)
+                .collect(ImmutableList.toImmutableList());
+    }
+
     public Deck<T> createDeck(Deck<Card> unversionedDeck) {
+        return createDeck(unversionedDeck, availability);
+    }
+
+    /**
+     * Construct a deck using the given availability in place of this constructor's own.
+     */
+    Deck<T> createDeck(Deck<Card> unversionedDeck, ToIntFunction<? super T> availability) {
+        return finishDeck(chooseVersions(unversionedDeck, availability));
+    }
+
+    /**
+     * Choose a version for each card in the deck, as the first half of {@link #createDeck}. The result holds the
+     * versions that were taken against the availability, before any card version or output transformation.
+     */
+    Deck<T> chooseVersions(Deck<Card> unversionedDeck, ToIntFunction<? super T> availability) {
         Deck<Card> transformedDeck = deckTransformation.apply(unversionedDeck);
-        Deck<T> versionedDeck = transformedDeck.getEntries()
-                .map(this::chooseVersion)
-                .collect(Deck.toDeck())
-                .transform(this::transformCardVersion);
-        return outputTransformation.apply(versionedDeck);
+        return transformedDeck.getEntries()
+                .map((Deck.Entry<Card> entry) -> chooseVersion(entry, availability))
+                .collect(Deck.toDeck());
+    }
+
+    /**
+     * Apply the card version and output transformations to a deck from {@link #chooseVersions}, as the second half of
+     * {@link #createDeck}.
+     */
+    Deck<T> finishDeck(Deck<T> chosenDeck) {
+        return outputTransformation.apply(chosenDeck.transform(this::transformCardVersion));
     }
 
     private Comparator<T> comparingVersions(Comparator<V> versionComparator) {
         return OrderingUtil.OptionalComparator.<T, V>build(DeckElement::getVersion, versionComparator).emptyKeysLast();
     }
 
-    private static final ImmutableSet<Deck.Section> DECK_SECTIONS = Sets.immutableEnumSet(EnumSet.allOf(Deck.Section.class));
+    private static final Deck.Section[] DECK_SECTIONS = Deck.Section.values();
 
-    private Deck<T> chooseVersion(Deck.Entry<Card> entry) {
-        Card card = entry.getCard();
+    /*
+     * A card's candidate versions don't depend on the deck, so each card's list is sorted once per constructor and
+     * reused by every deck that contains the card.
+     */
+    private static final class CardVersions<T> {
+        private final ImmutableSet<T> all;
+        private final ImmutableList<T> byPreference;
+
+        private CardVersions(ImmutableSet<T> all, ImmutableList<T> byPreference) {
+            this.all = all;
+            this.byPreference = byPreference;
+        }
+    }
+
+    /*
+     * Equivalent to a stable sort by comparingVersions(preference), with elements that have no version last.
+     */
+    private ImmutableList<T> sortByPreference(Collection<T> elements) {
+        Map<Boolean, List<T>> partition = elements.stream()
+                .collect(Collectors.partitioningBy((T element) -> element.getVersion().isPresent()));
+        return ImmutableList.<T>builderWithExpectedSize(elements.size())
+                .addAll(PreferenceBuilder.sortedCopy(versionPreference, partition.get(true)))
+                .addAll(partition.get(false))
+                .build();
+    }
+
+    private CardVersions<T> getVersions(Card card) {
+        CardVersions<T> versions = versionCache.get(card);
+        if (versions != null) return versions;
         ImmutableSet<T> allVersions = Stream.concat(
                 versionExtractor.fromCard(card).map(outputConstructor),
                 fallback.apply(card)
         ).collect(ImmutableSet.toImmutableSet());
+        versions = new CardVersions<>(allVersions, sortByPreference(allVersions));
+        CardVersions<T> previous = versionCache.putIfAbsent(card, versions);
+        return previous != null ? previous : versions;
+    }
+
 
-        Optional<T> favoriteAvailableVersion = allVersions.stream()
-                .filter((T version) -> availability.applyAsInt(version) >= entry.getTotal())
-                .min(comparingVersions(preference));
-        if (favoriteAvailableVersion.isPresent()) {
-            Deck.Builder<T> builder = new Deck.Builder<>();
-            T output = favoriteAvailableVersion.get();
-            for (Deck.Section section : DECK_SECTIONS) {
-                builder.addTo(section, output, entry.getNumberIn(section));
+    private Deck<T> chooseVersion(Deck.Entry<Card> entry, ToIntFunction<? super T> availability) {
+        Card card = entry.getCard();
+        CardVersions<T> versions = getVersions(card);
+        ImmutableList<T> byPreference = versions.byPreference;
+        int total = entry.getTotal();
+
+        int[] numbersAvailable = new int[byPreference.size()];
+        for (int i = 0; i < numbersAvailable.length; i++) {
+            T version = byPreference.get(i);
+            int numberAvailable = availability.applyAsInt(version);
+            if (numberAvailable >= total) {
+                Deck.Builder<T> builder = new Deck.Builder<>();
+                for (Deck.Section section : DECK_SECTIONS) {
+                    builder.addTo(section, version, entry.getNumberIn(section));
+                }
+                return builder.build();
             }
-            return builder.build();
+            numbersAvailable[i] = numberAvailable;
         }
 
-        // Else, there are not enough copies of any one version to match.
+        // Else, there are not enough copies of any one version to match. From here on, keep running counts of what
+        // has been taken of each available version and what is still wanted in each section, rather than recounting
+        // the accumulated deck.
         Deck.Builder<T> accumulation = new Deck.Builder<>();
-        List<T> orderedVersions = allVersions.stream()
-                .filter((T version) -> availability.applyAsInt(version) > 0)
-                .sorted(comparingVersions(preference))
-                .collect(ImmutableList.toImmutableList());
+        List<T> orderedVersions = new ArrayList<>(byPreference.size());
+        int[] remaining = new int[byPreference.size()];
+        for (int i = 0; i < numbersAvailable.length; i++) {
+            if (numbersAvailable[i] > 0) {
+                remaining[orderedVersions.size()] = numbersAvailable[i];
+                orderedVersions.add(byPreference.get(i));
+            }
+        }
+        int versionCount = orderedVersions.size();
+        int[] wanted = new int[DECK_SECTIONS.length];
+        for (int s = 0; s < DECK_SECTIONS.length; s++) {
+            wanted[s] = entry.getNumberIn(DECK_SECTIONS[s]);
+        }
+        int totalWanted = total;
 
         // First, fill the sections with matching groups of cards. Iterate over the sections in descending order of
         // importance, and use whichever version has enough cards to match, if any.
-        for (Deck.Section section : DECK_SECTIONS) {
-            int numberWanted = entry.getNumberIn(section);
+        for (int s = 0; s < DECK_SECTIONS.length; s++) {
+            int numberWanted = wanted[s];
             if (numberWanted == 0) continue;
-            for (T version : orderedVersions) {
-                int numberAvailable = availability.applyAsInt(version) - accumulation.getTotalCopiesOf(version);
-                if (numberAvailable >= numberWanted) {
-                    accumulation.addTo(section, version, numberWanted);
+            for (int v = 0; v < versionCount; v++) {
+                if (remaining[v] >= numberWanted) {
+                    accumulation.addTo(DECK_SECTIONS[s], orderedVersions.get(v), numberWanted);
+                    remaining[v] -= numberWanted;
+                    wanted[s] = 0;
+                    totalWanted -= numberWanted;
                     break;
                 }
             }
         }
-        if (accumulation.getSize() == entry.getTotal()) return accumulation.build();
+        if (totalWanted == 0) return accumulation.build();
 
         // Then, use whatever is available in preferred order, with mismatched groups if necessary.
-        for (T version : orderedVersions) {
-            int numberAvailable = availability.applyAsInt(version) - accumulation.getTotalCopiesOf(version);
-            for (Deck.Section section : DECK_SECTIONS) {
-                int numberWanted = entry.getNumberIn(section) - accumulation.get(section).size();
-                int numberToAdd = Math.min(numberAvailable, numberWanted);
-                accumulation.addTo(section, version, numberToAdd);
-                numberAvailable -= numberToAdd;
+        for (int v = 0; v < versionCount && totalWanted > 0; v++) {
+            for (int s = 0; s < DECK_SECTIONS.length && remaining[v] > 0; s++) {
+                int numberToAdd = Math.min(remaining[v], wanted[s]);
+                if (numberToAdd > 0) {
+                    accumulation.addTo(DECK_SECTIONS[s], orderedVersions.get(v), numberToAdd);
+                    remaining[v] -= numberToAdd;
+                    wanted[s] -= numberToAdd;
+                    totalWanted -= numberToAdd;
+                }
             }
         }
-        if (accumulation.getSize() == entry.getTotal()) return accumulation.build();
+        if (totalWanted == 0) return accumulation.build();
 
         // In case we still didn't find enough available copies, add unavailable copies using overflow logic.
         T overflowVersion = !orderedVersions.isEmpty() ? orderedVersions.get(0) :
-                allVersions.stream().min(comparingVersions(overflow))
+                versions.all.stream().min(comparingVersions(overflow))
                         .orElseThrow(() -> new CardVersionNotFoundException(card));
-        for (Deck.Section section : DECK_SECTIONS) {
-            int numberOfOverflowCopies = entry.getNumberIn(section) - accumulation.get(section).size();
-            accumulation.addTo(section, overflowVersion, numberOfOverflowCopies);
+        for (int s = 0; s < DECK_SECTIONS.length; s++) {
+            accumulation.addTo(DECK_SECTIONS[s], overflowVersion, wanted[s]);
         }
         return accumulation.build();
     }
@@ -26,6 +26,7 @@ import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.PrimitiveSink;
+import io.github.ryanskonnord.lambdagoyf.Environment;
 import io.github.ryanskonnord.lambdagoyf.card.CardIdentity;
 import io.github.ryanskonnord.lambdagoyf.card.DeckElement;
 import io.github.ryanskonnord.util.MinimalRng;
@@ -79,17 +80,36 @@ public class DeckRandomChoice implements MinimalRng {
     }
 
 
-    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final HashFunction LEGACY_HASH_FUNCTION = Hashing.sha256();
+    private static final HashFunction SALT_FUNCTION = Hashing.murmur3_128();
 
     public static DeckHasher withSalt(long salt) {
-        return new DeckHasher(salt);
+        return new DeckHasher(salt, Environment.useLegacyDeckDigest());
+    }
+
+    /**
+     * @return a name for the deck digest from which {@link #withSalt} seeds its choices; every choice made for an
+     *         unchanged deck stays the same as long as this does
+     */
+    public static String getDigestScheme() {
+        return Environment.useLegacyDeckDigest() ? "sha256" : "fingerprint-murmur3";
     }
 
     public static final class DeckHasher {
         private final long salt;
+        private final boolean useLegacyDigest;
 
         public DeckHasher(long salt) {
+            this(salt, Environment.useLegacyDeckDigest());
+        }
+
+        /**
+         * @param useLegacyDigest whether to hash the whole deck with SHA-256 every time instead of using its cached
+         *                        fingerprint, which reproduces the choices made before fingerprints were introduced
+         */
+        public DeckHasher(long salt, boolean useLegacyDigest) {
             this.salt = salt;
+            this.useLegacyDigest = useLegacyDigest;
         }
 
         private static void putUuid(UUID from, PrimitiveSink into) {
@@ -98,7 +118,15 @@ public class DeckRandomChoice implements MinimalRng {
         }
 
         private <C extends CardIdentity> long digestDeck(Deck<C> deck) {
-            Hasher sink = HASH_FUNCTION.newHasher();
+            if (useLegacyDigest) return digestDeckLegacy(deck);
+            return SALT_FUNCTION.newHasher()
+                    .putBytes(Deck.getFingerprint(deck).asBytes())
+                    .putLong(salt)
+                    .hash().asLong();
+        }
+
+        private <C extends CardIdentity> long digestDeckLegacy(Deck<C> deck) {
+            Hasher sink = LEGACY_HASH_FUNCTION.newHasher();
             for (Map.Entry<Deck.Section, ImmutableMultiset<C>> sectionEntry : deck.getAllSections()) {
                 Deck.Section section = sectionEntry.getKey();
                 sink.putInt(section.ordinal());
@@ -21,24 +21,31 @@ package io.github.ryanskonnord.lambdagoyf.deck;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumSet;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 public final class DeckSeeker {
@@ -64,26 +71,127 @@ public final class DeckSeeker {
             .map(f -> f.subdirectoryName).flatMap(Optional::stream)
             .collect(ImmutableSet.toImmutableSet());
 
+    private static final ImmutableListMultimap<String, DeckFileFormat> FORMATS_BY_SUBDIRECTORY = EnumSet.allOf(DeckFileFormat.class).stream()
+            .collect(ImmutableListMultimap.toImmutableListMultimap(f -> f.subdirectoryName.orElse(""), f -> f));
+
     private final Path directory;
     private final Optional<String> formatTag;
+    private final ImmutableMap<DeckFileFormat, String> formatTagPrefixes;
 
     public DeckSeeker(Path directory, String formatTag) {
         this.directory = Objects.requireNonNull(directory);
         this.formatTag = Optional.ofNullable(formatTag).filter(t -> !t.isEmpty());
+        this.formatTagPrefixes = Maps.immutableEnumMap(Maps.toMap(EnumSet.allOf(DeckFileFormat.class),
+                f -> f.usesFormatTag ? this.formatTag.map(tag -> String.format("[%s] ", tag)).orElse("") : ""));
+    }
+
+    private static boolean isSeekerDirectory(Path path) {
+        Path fileName = path.getFileName();
+        return fileName == null || !ALL_SUBDIRECTORY_NAMES.contains(fileName.toString());
     }
 
     public static Stream<DeckSeeker> walk(Path root, String formatTag) throws IOException {
         return Files.walk(root)
-                .filter(p -> Files.isDirectory(p) && !ALL_SUBDIRECTORY_NAMES.contains(p.getFileName().toString()))
+                .filter(p -> Files.isDirectory(p) && isSeekerDirectory(p))
                 .map(p -> new DeckSeeker(p, formatTag));
     }
 
+    /**
+     * Collects the entries of any number of seekers from file names, in whatever order the files are visited.
+     */
+    private static final class EntryCollector {
+        private final String formatTag;
+        private final Map<Path, DeckSeeker> seekers = new LinkedHashMap<>();
+        private final Map<DeckSeeker, SetMultimap<String, DeckFileFormat>> names = new HashMap<>();
+
+        private EntryCollector(String formatTag) {
+            this.formatTag = formatTag;
+        }
+
+        void addDirectory(Path directory) {
+            if (isSeekerDirectory(directory)) {
+                seekers.put(directory, new DeckSeeker(directory, formatTag));
+            }
+        }
+
+        void addFile(Path directory, String fileName) {
+            Path directoryName = directory.getFileName();
+            String subdirectoryName = directoryName == null ? "" : directoryName.toString();
+            DeckSeeker seeker;
+            if (ALL_SUBDIRECTORY_NAMES.contains(subdirectoryName)) {
+                seeker = seekers.get(directory.getParent());
+            } else {
+                seeker = seekers.get(directory);
+                subdirectoryName = "";
+            }
+            if (seeker != null) {
+                addFile(seeker, subdirectoryName, fileName);
+            }
+        }
+
+        void addFile(DeckSeeker seeker, String subdirectoryName, String fileName) {
+            for (DeckFileFormat fileFormat : FORMATS_BY_SUBDIRECTORY.get(subdirectoryName)) {
+                String name = seeker.matchName(fileFormat, fileName);
+                if (name != null) {
+                    names.computeIfAbsent(seeker, s -> MultimapBuilder.hashKeys().enumSetValues(DeckFileFormat.class).build())
+                            .put(name, fileFormat);
+                }
+            }
+        }
+
+        Stream<Entry> getEntries() {
+            return seekers.values().stream()
+                    .filter(names::containsKey)
+                    .flatMap(seeker -> seeker.createEntries(names.get(seeker)));
+        }
+    }
+
+    /**
+     * Find every entry under a root in a single pass over the tree. Symbolic links to directories are followed, and
+     * a link that would revisit one of its own ancestors is skipped.
+     */
     public static Collection<Entry> seekAll(Path root, String formatTag) throws IOException {
-        Collection<Entry> entries = new ArrayList<>();
-        for (Iterator<DeckSeeker> seekers = walk(root, formatTag).iterator(); seekers.hasNext(); ) {
-            seekers.next().seek().forEachOrdered(entries::add);
+        EntryCollector collector = new EntryCollector(formatTag);
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                collector.addDirectory(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                if (exc instanceof FileSystemLoopException) return FileVisitResult.SKIP_SUBTREE;
+                throw exc;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory()) {
+                    collector.addFile(file.getParent(), file.getFileName().toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return collector.getEntries().collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Identify the entry for a single source file, without listing its directory. The entry's present files include
+     * only the source file.
+     *
+     * @return the entry, or empty if the path is not a source file that {@link #walk} would find
+     */
+    public static Optional<Entry> locateSource(Path sourceFile, String formatTag) {
+        Path directory = sourceFile.getParent();
+        if (directory == null || directory.getFileName() == null || !isSeekerDirectory(directory)) {
+            return Optional.empty();
         }
-        return entries;
+        String fileName = sourceFile.getFileName().toString();
+        String extension = DeckFileFormat.SOURCE.fileExtension;
+        if (!fileName.endsWith(extension) || Files.isDirectory(sourceFile)) return Optional.empty();
+        String name = fileName.substring(0, fileName.length() - extension.length());
+        return Optional.of(new DeckSeeker(directory, formatTag).new Entry(name, EnumSet.of(DeckFileFormat.SOURCE)));
     }
 
     private Path getDirectoryFor(DeckFileFormat fileFormat) {
@@ -91,37 +199,43 @@ public final class DeckSeeker {
     }
 
     private String createFormatTagPrefix(DeckFileFormat fileFormat) {
-        return fileFormat.usesFormatTag ? formatTag.map(tag -> String.format("[%s] ", tag)).orElse("") : "";
+        return formatTagPrefixes.get(fileFormat);
     }
 
-    private static Stream<Path> listIfExists(Path dir) throws IOException {
-        return Files.exists(dir) ? Files.list(dir) : Stream.of();
+    /**
+     * @return the name of the deck in a file of the given format, or null if the file name doesn't fit the format
+     */
+    private String matchName(DeckFileFormat fileFormat, String fileName) {
+        String prefix = createFormatTagPrefix(fileFormat);
+        String extension = fileFormat.fileExtension;
+        if (fileName.length() < prefix.length() + extension.length()
+                || !fileName.startsWith(prefix) || !fileName.endsWith(extension)) {
+            return null;
+        }
+        return fileName.substring(prefix.length(), fileName.length() - extension.length());
     }
 
-    private Collection<String> findNames(DeckFileFormat fileFormat) throws IOException {
-        Pattern fileNamePattern = Pattern.compile(Pattern.quote(createFormatTagPrefix(fileFormat))
-                + "(?<name>.*)" + Pattern.quote(fileFormat.fileExtension));
-        Path subdirectory = getDirectoryFor(fileFormat);
-        return listIfExists(subdirectory)
-                .map((Path p) -> {
-                    if (Files.isDirectory(p)) return Optional.<String>empty();
-                    Matcher matcher = fileNamePattern.matcher(p.getFileName().toString());
-                    return matcher.matches() ? Optional.of(matcher.group("name")) : Optional.<String>empty();
-                })
-                .flatMap(Optional::stream)
-                .collect(ImmutableList.toImmutableList());
+    private Stream<Entry> createEntries(SetMultimap<String, DeckFileFormat> names) {
+        return names.asMap().entrySet().stream()
+                .sorted(Comparator.comparing(Map.Entry::getKey))
+                .map((Map.Entry<String, Collection<DeckFileFormat>> e) -> new Entry(e.getKey(), e.getValue()));
     }
 
     public Stream<Entry> seek() throws IOException {
-        SetMultimap<String, DeckFileFormat> entries = MultimapBuilder.hashKeys().enumSetValues(DeckFileFormat.class).build();
-        for (DeckFileFormat fileFormat : EnumSet.allOf(DeckFileFormat.class)) {
-            for (String name : findNames(fileFormat)) {
-                entries.put(name, fileFormat);
+        EntryCollector collector = new EntryCollector(formatTag.orElse(null));
+        collector.seekers.put(directory, this);
+        for (String subdirectoryName : FORMATS_BY_SUBDIRECTORY.keySet()) {
+            Path subdirectory = subdirectoryName.isEmpty() ? directory : directory.resolve(subdirectoryName);
+            if (!Files.isDirectory(subdirectory)) continue;
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(subdirectory)) {
+                for (Path child : children) {
+                    if (!Files.isDirectory(child)) {
+                        collector.addFile(this, subdirectoryName, child.getFileName().toString());
+                    }
+                }
             }
         }
-        return entries.asMap().entrySet().stream()
-                .sorted(Comparator.comparing(Map.Entry::getKey))
-                .map((Map.Entry<String, Collection<DeckFileFormat>> e) -> new Entry(e.getKey(), e.getValue()));
+        return collector.getEntries();
     }
 
     public final class Entry {
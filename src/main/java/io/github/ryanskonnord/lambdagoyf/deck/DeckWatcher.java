@@ -0,0 +1,213 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.deck;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds decks whenever their source files change, using pipelines that stay warm between rebuilds.
+ * <p>
+ * Every directory under each target's root is watched, including directories created later. Events are collected
+ * until none have arrived for the debounce interval, so that a burst of saves causes one rebuild. Each changed path
+ * is offered to every target whose root contains it, and the target decides whether the path is one of its sources.
+ */
+public final class DeckWatcher {
+
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    private static final class Target {
+        private final Path root;
+        private final DeckBuildPipeline<?, ?> pipeline;
+        private final Function<Path, Optional<DeckBuildPipeline.Job>> jobs;
+
+        private Target(Path root, DeckBuildPipeline<?, ?> pipeline, Function<Path, Optional<DeckBuildPipeline.Job>> jobs) {
+            this.root = root.toAbsolutePath();
+            this.pipeline = Objects.requireNonNull(pipeline);
+            this.jobs = Objects.requireNonNull(jobs);
+        }
+    }
+
+    private final ImmutableList<Target> targets;
+    private final Duration debounce;
+    private final Runnable afterRebuild;
+    private final PrintStream log;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    private DeckWatcher(Builder builder) {
+        this.targets = builder.targets.build();
+        this.debounce = builder.debounce;
+        this.afterRebuild = builder.afterRebuild;
+        this.log = builder.log;
+    }
+
+    public static final class Builder {
+        private final ImmutableList.Builder<Target> targets = ImmutableList.builder();
+        private Duration debounce = DEFAULT_DEBOUNCE;
+        private Runnable afterRebuild = () -> {
+        };
+        private PrintStream log = System.err;
+
+        /**
+         * @param jobs maps a changed path under the root to the job that rebuilds it, or to empty if the path is not
+         *             a source file
+         */
+        public Builder addTarget(Path root, DeckBuildPipeline<?, ?> pipeline,
+                                 Function<Path, Optional<DeckBuildPipeline.Job>> jobs) {
+            targets.add(new Target(root, pipeline, jobs));
+            return this;
+        }
+
+        public Builder setDebounce(Duration debounce) {
+            Preconditions.checkArgument(!debounce.isNegative());
+            this.debounce = debounce;
+            return this;
+        }
+
+        /**
+         * Run an action after each rebuild, such as saving a {@link DeckBuildCache}.
+         */
+        public Builder setAfterRebuild(Runnable afterRebuild) {
+            this.afterRebuild = Objects.requireNonNull(afterRebuild);
+            return this;
+        }
+
+        public Builder setLog(PrintStream log) {
+            this.log = Objects.requireNonNull(log);
+            return this;
+        }
+
+        public DeckWatcher build() {
+            Preconditions.checkState(!targets.build().isEmpty(), "No targets to watch");
+            return new DeckWatcher(this);
+        }
+    }
+
+    private void registerRecursively(WatchService watchService, Path directory) throws IOException {
+        List<Path> directories;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            directories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        for (Path subdirectory : directories) {
+            WatchKey key = subdirectory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, subdirectory);
+        }
+    }
+
+    /**
+     * Drain the events from a signalled key into the set of changed paths, and start watching any new directories.
+     */
+    private void collect(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                log.println("Missed some file events; save again to rebuild any decks that were skipped");
+                continue;
+            }
+            if (directory == null) continue;
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerRecursively(watchService, path);
+                try (Stream<Path> paths = Files.walk(path)) {
+                    paths.filter(Files::isRegularFile).forEach(changed::add);
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private void rebuild(Set<Path> changed) throws InterruptedException {
+        boolean isRebuilt = false;
+        for (Target target : targets) {
+            ImmutableList<DeckBuildPipeline.Job> jobs = changed.stream()
+                    .filter(path -> path.startsWith(target.root) && Files.isRegularFile(path))
+                    .map(target.jobs).flatMap(Optional::stream)
+                    .collect(ImmutableList.toImmutableList());
+            if (jobs.isEmpty()) continue;
+            isRebuilt = true;
+
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            DeckBuildPipeline.Report<?> report = target.pipeline.run(jobs.stream());
+            for (DeckBuildPipeline.Result<?> result : report.getResults()) {
+                if (result.getStatus() == DeckBuildPipeline.Status.WRITTEN) {
+                    log.printf("Rebuilt %s in %d ms%n", result.getJob().getName(), result.getElapsed().toMillis());
+                }
+            }
+            report.printSummary(log);
+            log.printf("Rebuild latency: %d ms for %d changed files%n",
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS), jobs.size());
+        }
+        if (isRebuilt) {
+            afterRebuild.run();
+        }
+    }
+
+    /**
+     * Watch for changes until the thread is interrupted.
+     */
+    public void run() throws IOException, InterruptedException {
+        ImmutableSet<Path> roots = targets.stream().map(t -> t.root).collect(ImmutableSet.toImmutableSet());
+        try (WatchService watchService = roots.iterator().next().getFileSystem().newWatchService()) {
+            for (Path root : roots) {
+                registerRecursively(watchService, root);
+            }
+            log.printf("Watching %d directories for deck changes%n", watchedDirectories.size());
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService, watchService.take(), changed);
+                for (WatchKey key; (key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null; ) {
+                    collect(watchService, key, changed);
+                }
+                rebuild(changed);
+            }
+        } finally {
+            watchedDirectories.clear();
+        }
+    }
+
+}
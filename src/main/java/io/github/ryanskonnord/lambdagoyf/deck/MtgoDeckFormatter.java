@@ -29,6 +29,7 @@ import com.google.common.collect.Multiset;
 import io.github.ryanskonnord.lambdagoyf.card.Card;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
 import io.github.ryanskonnord.lambdagoyf.card.Expansion;
+import io.github.ryanskonnord.lambdagoyf.card.FuzzyNameIndex;
 import io.github.ryanskonnord.lambdagoyf.card.MtgoCard;
 import io.github.ryanskonnord.lambdagoyf.card.Spoiler;
 import io.github.ryanskonnord.lambdagoyf.card.Word;
@@ -59,7 +60,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -381,6 +384,21 @@ public final class MtgoDeckFormatter {
     public static Deck<Card> createDeckFromCardNames(Spoiler spoiler,
                                                      Deck<String> cardNames,
                                                      Consumer<? super String> missingNameHandler) {
+        return createDeckFromCardNames(spoiler, cardNames, name -> Optional.empty(), (name, card) -> {},
+                missingNameHandler);
+    }
+
+    /**
+     * @param fallback        a last resort for names that could not be resolved exactly, such as {@link
+     *                        FuzzyNameIndex#lookUpBestMatch}
+     * @param fallbackHandler notified of each name that was resolved only by {@code fallback}, with the card it was
+     *                        resolved as
+     */
+    public static Deck<Card> createDeckFromCardNames(Spoiler spoiler,
+                                                     Deck<String> cardNames,
+                                                     Function<? super String, Optional<Card>> fallback,
+                                                     BiConsumer<? super String, ? super Card> fallbackHandler,
+                                                     Consumer<? super String> missingNameHandler) {
         return cardNames.flatTransform((String name) -> {
             Optional<Card> card = spoiler.lookUpByName(name);
             if (!card.isPresent()) {
@@ -394,6 +412,12 @@ public final class MtgoDeckFormatter {
                     card = spoiler.lookUpByName(name);
                 }
             }
+            if (!card.isPresent()) {
+                card = fallback.apply(name);
+                if (card.isPresent()) {
+                    fallbackHandler.accept(name, card.get());
+                }
+            }
             if (!card.isPresent()) {
                 missingNameHandler.accept(name);
             }
@@ -27,21 +27,20 @@ import com.google.common.collect.Maps;
 import io.github.ryanskonnord.util.MapCollectors;
 
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public final class MtgoDeckSeeker {
 
@@ -111,26 +110,23 @@ public final class MtgoDeckSeeker {
         }
     }
 
-    private static final Pattern FILE_EXTENSION_PATTERN = Pattern.compile("(?<name>.*)\\.(?<extension>\\w+)");
-
     public ImmutableCollection<MtgoDeckFileGroup> seek() throws IOException {
-        List<Path> paths = Files.walk(root).filter(filter).collect(Collectors.toList());
         Map<Path, MtgoDeckFileGroup.Builder> builders = new HashMap<>();
-        for (Path path : paths) {
-            Matcher matcher = FILE_EXTENSION_PATTERN.matcher(path.toAbsolutePath().toString());
-            if (matcher.matches()) {
-                String extension = matcher.group("extension");
-                MtgoDeckFileFormat format = MtgoDeckFileFormat.BY_EXTENSION.get(extension);
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                if (attrs.isDirectory() || !filter.test(path)) return FileVisitResult.CONTINUE;
+                String fileName = path.getFileName().toString();
+                int dot = fileName.lastIndexOf('.');
+                if (dot < 0) return FileVisitResult.CONTINUE;
+                MtgoDeckFileFormat format = MtgoDeckFileFormat.BY_EXTENSION.get(fileName.substring(dot + 1));
                 if (format != null) {
-                    Path name = Paths.get(matcher.group("name"));
-                    MtgoDeckFileGroup.Builder builder = builders.get(name);
-                    if (builder == null) {
-                        builders.put(name, builder = new MtgoDeckFileGroup.Builder());
-                    }
-                    builder.files.put(format, path);
+                    Path name = path.toAbsolutePath().resolveSibling(fileName.substring(0, dot));
+                    builders.computeIfAbsent(name, k -> new MtgoDeckFileGroup.Builder()).files.put(format, path);
                 }
+                return FileVisitResult.CONTINUE;
             }
-        }
+        });
         return builders.entrySet().stream()
                 .sorted(Comparator.comparing(Map.Entry::getKey))
                 .map(e -> new MtgoDeckFileGroup(e.getKey(), e.getValue()))
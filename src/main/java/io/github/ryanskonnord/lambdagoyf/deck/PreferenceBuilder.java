@@ -22,72 +22,274 @@ package io.github.ryanskonnord.lambdagoyf.deck;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Builds an order of preference out of a chain of rules, where the first rule that distinguishes two values decides
+ * between them.
+ * <p>
+ * The order that this builds remembers which of its rules are predicates. Use {@link #sortedCopy} to sort by it,
+ * which evaluates every predicate only once per value instead of twice per comparison, and packs the results of the
+ * leading run of plain predicates into a single key.
+ */
 public final class PreferenceBuilder<T> {
 
-    private final List<Comparator<? super T>> comparators = new ArrayList<>();
+    private final List<Rule<? super T>> rules = new ArrayList<>();
 
     public PreferenceBuilder<T> addRule(Comparator<? super T> rule) {
         if (rule instanceof PreferenceChain) {
-            comparators.addAll(((PreferenceChain<? super T>) rule).comparators);
+            rules.addAll(((PreferenceChain<? super T>) rule).rules);
         } else {
-            comparators.add(Objects.requireNonNull(rule));
+            rules.add(new ComparatorRule<>(rule));
         }
         return this;
     }
 
     public PreferenceBuilder<T> prefer(Predicate<? super T> predicate) {
-        Objects.requireNonNull(predicate);
-        return addRule((T o1, T o2) -> Boolean.compare(predicate.test(o2), predicate.test(o1)));
+        rules.add(new PredicateRule<>(predicate, null));
+        return this;
     }
 
     public PreferenceBuilder<T> preferWithRule(Predicate<? super T> predicate, Comparator<? super T> rule) {
-        Objects.requireNonNull(predicate);
-        Objects.requireNonNull(rule);
-        return addRule((T o1, T o2) -> {
-            boolean t1 = predicate.test(o1);
-            boolean t2 = predicate.test(o2);
+        rules.add(new PredicateRule<>(predicate, Objects.requireNonNull(rule)));
+        return this;
+    }
+
+    public Comparator<T> build() {
+        return new PreferenceChain<>(rules);
+    }
+
+    /**
+     * Combine two orders into one that applies the second to break ties in the first. If both were built by a
+     * {@code PreferenceBuilder}, so is the result.
+     */
+    public static <T> Comparator<T> concat(Comparator<? super T> first, Comparator<? super T> second) {
+        return new PreferenceBuilder<T>().addRule(first).addRule(second).build();
+    }
+
+    /**
+     * Order values by applying an order to a key extracted from them. If the order was built by a
+     * {@code PreferenceBuilder}, so is the result.
+     */
+    public static <T, K> Comparator<T> onKey(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> order) {
+        Objects.requireNonNull(keyExtractor);
+        if (order instanceof PreferenceChain) {
+            return ((PreferenceChain<? super K>) order).map(keyExtractor);
+        }
+        Objects.requireNonNull(order);
+        return (T o1, T o2) -> order.compare(keyExtractor.apply(o1), keyExtractor.apply(o2));
+    }
+
+    /**
+     * Sort values by an order. The result is the same as a stable sort with the order as a comparator, but if the
+     * order was built by a {@code PreferenceBuilder}, each of its predicates is evaluated only once per value.
+     */
+    public static <T> ImmutableList<T> sortedCopy(Comparator<? super T> order, Collection<T> values) {
+        if (order instanceof PreferenceChain) {
+            return ((PreferenceChain<? super T>) order).sortedCopy(values);
+        }
+        return ImmutableList.sortedCopyOf(order, values);
+    }
+
+    private static abstract class Rule<T> {
+        /**
+         * @return the rule's predicate, whose results are passed to {@link #compare}, if it has one
+         */
+        abstract Predicate<? super T> getPredicate();
+
+        abstract int compare(T o1, T o2, boolean t1, boolean t2);
+
+        /**
+         * @return whether the rule's predicate results alone decide between two values
+         */
+        boolean isDecidedByPredicate() {
+            return false;
+        }
+
+        abstract <U> Rule<U> map(Function<? super U, ? extends T> keyExtractor);
+    }
+
+    private static final class ComparatorRule<T> extends Rule<T> {
+        private final Comparator<? super T> comparator;
+
+        private ComparatorRule(Comparator<? super T> comparator) {
+            this.comparator = Objects.requireNonNull(comparator);
+        }
+
+        @Override
+        Predicate<? super T> getPredicate() {
+            return null;
+        }
+
+        @Override
+        int compare(T o1, T o2, boolean t1, boolean t2) {
+            return comparator.compare(o1, o2);
+        }
+
+        @Override
+        <U> Rule<U> map(Function<? super U, ? extends T> keyExtractor) {
+            return new ComparatorRule<>(onKey(keyExtractor, comparator));
+        }
+    }
+
+    private static final class PredicateRule<T> extends Rule<T> {
+        private final Predicate<? super T> predicate;
+        private final Comparator<? super T> ruleIfBoth;
+
+        private PredicateRule(Predicate<? super T> predicate, Comparator<? super T> ruleIfBoth) {
+            this.predicate = Objects.requireNonNull(predicate);
+            this.ruleIfBoth = ruleIfBoth;
+        }
+
+        @Override
+        Predicate<? super T> getPredicate() {
+            return predicate;
+        }
+
+        @Override
+        boolean isDecidedByPredicate() {
+            return ruleIfBoth == null;
+        }
+
+        @Override
+        int compare(T o1, T o2, boolean t1, boolean t2) {
             if (t1 && t2) {
-                return rule.compare(o1, o2);
+                return ruleIfBoth == null ? 0 : ruleIfBoth.compare(o1, o2);
             } else {
                 return t1 ? -1 : t2 ? 1 : 0;
             }
-        });
-    }
+        }
 
-    public Comparator<T> build() {
-        return new PreferenceChain<>(comparators);
+        @Override
+        <U> Rule<U> map(Function<? super U, ? extends T> keyExtractor) {
+            return new PredicateRule<>((U value) -> predicate.test(keyExtractor.apply(value)),
+                    ruleIfBoth == null ? null : onKey(keyExtractor, ruleIfBoth));
+        }
     }
 
     private static final class PreferenceChain<T> implements Comparator<T> {
-        private final ImmutableList<Comparator<? super T>> comparators;
+        private final ImmutableList<Rule<? super T>> rules;
+        private final int predicateCount;
+        private final int keyLength;
 
-        private PreferenceChain(List<Comparator<? super T>> comparators) {
-            this.comparators = ImmutableList.copyOf(comparators);
+        private PreferenceChain(List<Rule<? super T>> rules) {
+            this.rules = ImmutableList.copyOf(rules);
+            this.predicateCount = (int) this.rules.stream().filter(r -> r.getPredicate() != null).count();
+            int keyLength = 0;
+            while (keyLength < this.rules.size() && this.rules.get(keyLength).isDecidedByPredicate()) {
+                keyLength++;
+            }
+            this.keyLength = keyLength;
         }
 
         @Override
         public int compare(T o1, T o2) {
             if (o1 == o2) return 0;
-            for (Comparator<? super T> comparator : comparators) {
-                int cmp = comparator.compare(o1, o2);
+            for (Rule<? super T> rule : rules) {
+                Predicate<? super T> predicate = rule.getPredicate();
+                int cmp = (predicate == null) ? rule.compare(o1, o2, false, false)
+                        : rule.compare(o1, o2, predicate.test(o1), predicate.test(o2));
                 if (cmp != 0) return cmp;
             }
             return 0;
         }
 
+        private <U> PreferenceChain<U> map(Function<? super U, ? extends T> keyExtractor) {
+            List<Rule<? super U>> mapped = new ArrayList<>(rules.size());
+            for (Rule<? super T> rule : rules) {
+                mapped.add(rule.map(keyExtractor));
+            }
+            return new PreferenceChain<>(mapped);
+        }
+
+        /*
+         * Each value's predicate results are packed into a long, where the bit for the i-th predicate rule is set if
+         * the predicate is true. Comparisons then read the bits instead of testing the predicates again.
+         *
+         * The chain's leading rules that are plain predicates are also packed into a sort key, with the first rule in
+         * the most significant bit and a set bit for a false result, so that a lesser key is preferred. Comparisons
+         * compare the keys and walk the remaining rules only if the keys are equal. Comparator rules and the
+         * tie-breaking rules of preferWithRule can't be packed, so they are still called during the comparison.
+         */
+        private static final class Keyed<T> {
+            private final T value;
+            private final long predicateBits;
+            private final long key;
+
+            private Keyed(T value, long predicateBits, long key) {
+                this.value = value;
+                this.predicateBits = predicateBits;
+                this.key = key;
+            }
+        }
+
+        private <V extends T> Keyed<V> evaluatePredicates(V value) {
+            long bits = 0L;
+            long key = 0L;
+            int index = 0;
+            for (Rule<? super T> rule : rules) {
+                Predicate<? super T> predicate = rule.getPredicate();
+                if (predicate != null) {
+                    boolean result = predicate.test(value);
+                    if (result) {
+                        bits |= 1L << index;
+                    }
+                    if (index < keyLength) {
+                        key = (key << 1) | (result ? 0L : 1L);
+                    }
+                    index++;
+                }
+            }
+            return new Keyed<>(value, bits, key);
+        }
+
+        private int compare(Keyed<? extends T> k1, Keyed<? extends T> k2) {
+            if (k1.value == k2.value) return 0;
+            int cmp = Long.compareUnsigned(k1.key, k2.key);
+            if (cmp != 0) return cmp;
+            // The first keyLength rules are also the first keyLength predicate rules
+            int index = keyLength;
+            for (Rule<? super T> rule : rules.subList(keyLength, rules.size())) {
+                if (rule.getPredicate() == null) {
+                    cmp = rule.compare(k1.value, k2.value, false, false);
+                } else {
+                    long bit = 1L << index++;
+                    cmp = rule.compare(k1.value, k2.value, (k1.predicateBits & bit) != 0, (k2.predicateBits & bit) != 0);
+                }
+                if (cmp != 0) return cmp;
+            }
+            return 0;
+        }
+
+        private <V extends T> ImmutableList<V> sortedCopy(Collection<V> values) {
+            if (predicateCount > Long.SIZE) {
+                return ImmutableList.sortedCopyOf(this, values);
+            }
+            List<Keyed<V>> keyed = new ArrayList<>(values.size());
+            for (V value : values) {
+                keyed.add(evaluatePredicates(value));
+            }
+            keyed.sort(this::compare);
+            ImmutableList.Builder<V> sorted = ImmutableList.builderWithExpectedSize(keyed.size());
+            for (Keyed<V> k : keyed) {
+                sorted.add(k.value);
+            }
+            return sorted.build();
+        }
+
         @Override
         public boolean equals(Object o) {
-            return this == o || !(o == null || getClass() != o.getClass()) && comparators.equals(((PreferenceChain<?>) o).comparators);
+            return this == o || !(o == null || getClass() != o.getClass()) && rules.equals(((PreferenceChain<?>) o).rules);
         }
 
         @Override
         public int hashCode() {
-            return comparators.hashCode();
+            return rules.hashCode();
         }
     }
 
@@ -21,6 +21,7 @@ package io.github.ryanskonnord.lambdagoyf.deck.preference;
 
 import io.github.ryanskonnord.lambdagoyf.card.ArenaCard;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
+import io.github.ryanskonnord.lambdagoyf.deck.PreferenceBuilder;
 
 import java.util.Comparator;
 import java.util.Objects;
@@ -36,8 +37,7 @@ public final class ArenaCardPreferences {
     }
 
     public static Comparator<ArenaCard> onEditions(Comparator<? super CardEdition> editionComparator) {
-        Objects.requireNonNull(editionComparator);
-        return (ArenaCard o1, ArenaCard o2) -> editionComparator.compare(o1.getEdition(), o2.getEdition());
+        return PreferenceBuilder.onKey(ArenaCard::getEdition, editionComparator);
     }
 
 }
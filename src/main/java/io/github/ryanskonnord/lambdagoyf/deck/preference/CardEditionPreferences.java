@@ -24,7 +24,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
 import io.github.ryanskonnord.lambdagoyf.card.CardEditionFace;
-import io.github.ryanskonnord.lambdagoyf.card.CardIllustration;
+import io.github.ryanskonnord.lambdagoyf.card.EditionIndex;
 import io.github.ryanskonnord.lambdagoyf.card.Expansion;
 import io.github.ryanskonnord.lambdagoyf.card.Word;
 import io.github.ryanskonnord.lambdagoyf.card.field.ExpansionType;
@@ -82,21 +82,21 @@ public final class CardEditionPreferences {
     }
 
     public static Predicate<CardEdition> hasNewIllustration() {
-        return (CardEdition edition) -> {
-            CardIllustration illustration = edition.getIllustration();
-            for (CardEdition candidate : edition.getEarlierReleases()) {
-                if (candidate.getIllustration().equals(illustration)) {
-                    return false;
-                }
-            }
-            return true;
-        };
+        return CardEdition::isIllustrationDebut;
     }
 
     public static Predicate<CardEdition> hasWatermark() {
         return hasWatermark(w -> true);
     }
 
+    public static Predicate<CardEdition> hasWatermark(EditionIndex index) {
+        return index.asPredicate(index.withAnyWatermark());
+    }
+
+    public static Predicate<CardEdition> hasWatermark(EditionIndex index, Watermark watermark) {
+        return index.asPredicate(index.withWatermark(watermark));
+    }
+
     public static Predicate<CardEdition> hasWatermark(Predicate<Word<Watermark>> watermarkPredicate) {
         return (CardEdition e) ->
                 e.getFaces().stream().anyMatch((CardEditionFace f) ->
@@ -21,32 +21,34 @@ package io.github.ryanskonnord.lambdagoyf.deck.preference;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.MoreCollectors;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Lists;
 import io.github.ryanskonnord.lambdagoyf.card.Card;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
 import io.github.ryanskonnord.lambdagoyf.card.CardVersion;
 import io.github.ryanskonnord.lambdagoyf.card.CardVersionExtractor;
 import io.github.ryanskonnord.lambdagoyf.card.Color;
+import io.github.ryanskonnord.lambdagoyf.card.EditionIndex;
 import io.github.ryanskonnord.lambdagoyf.card.Expansion;
 import io.github.ryanskonnord.lambdagoyf.card.Spoiler;
 import io.github.ryanskonnord.lambdagoyf.card.field.CardSupertype;
 import io.github.ryanskonnord.lambdagoyf.deck.Deck;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckRandomChoice;
-import io.github.ryanskonnord.util.MapCollectors;
+import io.github.ryanskonnord.util.OrdinalSet;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static io.github.ryanskonnord.lambdagoyf.deck.preference.BasicLandPreferenceSequence.infiniteAvailability;
@@ -149,20 +151,49 @@ public class MinimalArtistGrouper<C extends CardVersion> {
         }
     }
 
-    private Category getArtistGroups(Predicate<? super CardEdition> predicate) {
-        ImmutableSetMultimap<String, C> artistGroupMap = scope.extractor.apply(spoiler)
-                .flatMap(c -> c.getEditions().stream())
-                .filter(predicate)
-                .flatMap(extractor::fromEdition)
-                .collect(MapCollectors.<C>collecting()
-                        .indexing((CardVersion c) -> c.getEdition().getArtists().collect(MoreCollectors.onlyElement()))
-                        .grouping().toImmutableSetMultimap());
-        return new Category(Multimaps.asMap(artistGroupMap).values());
+    /*
+     * The editions of the cards in scope, ordered as the scope visits them: by card, in the scope's order, then by
+     * the editions' order within the card, which is also their ordinal order.
+     */
+    private static final class ScopeEditions {
+        private final EditionIndex index;
+        private final OrdinalSet editions;
+        private final Comparator<CardEdition> order;
+
+        private ScopeEditions(EditionIndex index, List<Card> cards) {
+            this.index = index;
+            this.editions = index.toSet(cards.stream().flatMap(c -> c.getEditions().stream()));
+            Map<Card, Integer> cardPositions = IntStream.range(0, cards.size()).boxed()
+                    .collect(Collectors.toMap(cards::get, Function.identity()));
+            this.order = Comparator.comparingInt((CardEdition edition) -> cardPositions.get(edition.getCard()))
+                    .thenComparingInt(CardEdition::getOrdinal);
+        }
+    }
+
+    private Category getArtistGroups(ScopeEditions scopeEditions, Predicate<? super CardEdition> predicate) {
+        EditionIndex index = scopeEditions.index;
+        OrdinalSet selected = index.matching(scopeEditions.editions, predicate);
+
+        // Keep the groups in order of each artist's first version in scope, for the sake of the random tiebreaker
+        List<Map.Entry<CardEdition, Set<C>>> groupsByFirstEdition = new ArrayList<>();
+        for (OrdinalSet artistEditions : index.groupByArtist(selected).values()) {
+            ImmutableSet<C> versions = index.getEditions(artistEditions)
+                    .flatMap(extractor::fromEdition)
+                    .collect(ImmutableSet.toImmutableSet());
+            if (versions.isEmpty()) continue;
+            CardEdition firstEdition = versions.stream().map(CardVersion::getEdition)
+                    .min(scopeEditions.order).orElseThrow();
+            groupsByFirstEdition.add(Map.entry(firstEdition, versions));
+        }
+        groupsByFirstEdition.sort(Map.Entry.comparingByKey(scopeEditions.order));
+        return new Category(Lists.transform(groupsByFirstEdition, Map.Entry::getValue));
     }
 
     public UnaryOperator<Deck<C>> getModifier() {
+        ScopeEditions scopeEditions = new ScopeEditions(spoiler.getEditionIndex(),
+                scope.extractor.apply(spoiler).collect(Collectors.toList()));
         ImmutableList<Category> categories = predicates.stream()
-                .map(this::getArtistGroups)
+                .map(predicate -> getArtistGroups(scopeEditions, predicate))
                 .collect(ImmutableList.toImmutableList());
 
         return (Deck<C> deck) -> {
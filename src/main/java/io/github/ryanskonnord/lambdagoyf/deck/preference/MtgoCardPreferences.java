@@ -27,6 +27,7 @@ import io.github.ryanskonnord.lambdagoyf.card.field.BorderColor;
 import io.github.ryanskonnord.lambdagoyf.card.field.CardSupertype;
 import io.github.ryanskonnord.lambdagoyf.card.field.Finish;
 import io.github.ryanskonnord.lambdagoyf.card.field.FrameStyle;
+import io.github.ryanskonnord.lambdagoyf.deck.PreferenceBuilder;
 
 import java.util.Comparator;
 import java.util.Objects;
@@ -42,8 +43,7 @@ public final class MtgoCardPreferences {
     }
 
     public static Comparator<MtgoCard> onEditions(Comparator<? super CardEdition> editionComparator) {
-        Objects.requireNonNull(editionComparator);
-        return (MtgoCard o1, MtgoCard o2) -> editionComparator.compare(o1.getEdition(), o2.getEdition());
+        return PreferenceBuilder.onKey(MtgoCard::getEdition, editionComparator);
     }
 
     public static Predicate<MtgoCard> hasFinish(Finish finish) {
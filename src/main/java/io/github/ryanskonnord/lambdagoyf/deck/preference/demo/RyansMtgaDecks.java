@@ -52,8 +52,10 @@ import io.github.ryanskonnord.lambdagoyf.deck.ArenaVersionId;
 import io.github.ryanskonnord.lambdagoyf.deck.CommanderLegality;
 import io.github.ryanskonnord.lambdagoyf.deck.CompanionLegality;
 import io.github.ryanskonnord.lambdagoyf.deck.Deck;
+import io.github.ryanskonnord.lambdagoyf.deck.DeckBuildPipeline;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckConstructor;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckRandomChoice;
+import io.github.ryanskonnord.lambdagoyf.deck.DeckWatcher;
 import io.github.ryanskonnord.lambdagoyf.deck.preference.MinimalArtistGrouper;
 import io.github.ryanskonnord.lambdagoyf.scryfall.ScryfallParser;
 import io.github.ryanskonnord.util.MapCollectors;
@@ -61,12 +63,16 @@ import io.github.ryanskonnord.util.MultisetUtil;
 import io.github.ryanskonnord.util.OrderingUtil;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -309,41 +315,46 @@ public final class RyansMtgaDecks {
                 .defaultToAnyArtist()
                 .getModifier();
 
-        generate(spoiler, rootDirectory.resolve("Standard"), builder -> builder
+        DeckWatcher.Builder watcher = new DeckWatcher.Builder();
+        generate(spoiler, watcher, rootDirectory.resolve("Standard"), builder -> builder
                         .addDeckTransformation(fromAlchemy)
                         .withPreferenceOrder().override(Comparator.comparing((CardVersion version) -> isSubrareAfter(version, "2022-09-09")).reversed())
                         .addOutputTransformation(randomArenaReplacement(BloomburrowLandSeason.getGroups()))
 //                .addVersionTransformation(broGroups)
         );
-        generate(spoiler, rootDirectory.resolve("Explorer"), builder -> builder
+        generate(spoiler, watcher, rootDirectory.resolve("Explorer"), builder -> builder
                 .addDeckTransformation(fromAlchemy)
                 .withPreferenceOrder().override(preferArenaEntries(ETERNAL_FAVORITES, UNSTABLE_LANDS, MODERN_HORIZONS_SNOW_LANDS))
                 .withPreferenceOrder().override(Comparator.comparing(c -> c.getEdition().getExpansion().isNamed("Strixhaven Mystical Archive")))
                 .addDeckTransformation(deck -> CompanionLegality.addMissingCompanion(spoiler, deck, c -> true, Function.identity()))
                 .addOutputTransformation(randomArenaReplacement(explorerLandChoices())));
 
-        generate(spoiler, rootDirectory.resolve("Alchemy"), builder -> builder
+        generate(spoiler, watcher, rootDirectory.resolve("Alchemy"), builder -> builder
                 .addDeckTransformation(toAlchemy)
                 .withPreferenceOrder().override(Comparator.comparing((CardVersion version) -> isSubrareAfter(version, "2022-09-22")).reversed())
                 .withPreferenceOrder().override(Comparator.comparing(c -> !c.getEdition().getExpansion().isNamed("Strixhaven Mystical Archive")))
                 .withPreferenceOrder().override(preferArenaEntries(ETERNAL_FAVORITES, UNF_PLANETARY, PIXEL_SNOW_LANDS)));
-        generate(spoiler, rootDirectory.resolve("Historic"), builder -> builder
+        generate(spoiler, watcher, rootDirectory.resolve("Historic"), builder -> builder
                 .addDeckTransformation(toAlchemy)
                 .withPreferenceOrder().override(Comparator.comparing(c -> !c.getEdition().getExpansion().isNamed("Strixhaven Mystical Archive")))
                 .withPreferenceOrder().override(preferArenaEntries(ETERNAL_FAVORITES, UNF_ORBITAL, MODERN_HORIZONS_SNOW_LANDS))
                 .addDeckTransformation(deck -> CompanionLegality.addMissingCompanion(spoiler, deck, c -> true, Function.identity())));
-        generate(spoiler, rootDirectory.resolve("Timeless"), builder -> builder
+        generate(spoiler, watcher, rootDirectory.resolve("Timeless"), builder -> builder
                 .withPreferenceOrder().override(Comparator.comparing(c -> !c.getEdition().getExpansion().isNamed("Strixhaven Mystical Archive")))
                 .withPreferenceOrder().override(preferArenaEntries(ETERNAL_FAVORITES, M21_SHOWCASE_LANDS, MODERN_HORIZONS_SNOW_LANDS))
                 .addDeckTransformation(deck -> CompanionLegality.addMissingCompanion(spoiler, deck, c -> true, Function.identity()))
                 .addOutputTransformation(randomArenaReplacement(timelessLandChoices())));
-        generate(spoiler, rootDirectory.resolve("Historic Brawl"), builder -> builder
+        generate(spoiler, watcher, rootDirectory.resolve("Historic Brawl"), builder -> builder
                 .addDeckTransformation(toAlchemy)
                 .withPreferenceOrder().override(Comparator.comparing(c -> !c.getEdition().getExpansion().isNamed("Strixhaven Mystical Archive")))
                 .withPreferenceOrder().override(preferArenaEntries(ETERNAL_FAVORITES, UNHINGED_LANDS, MODERN_HORIZONS_SNOW_LANDS))
                 .addDeckTransformation(CommanderLegality::inferCommander)
                 .addOutputTransformation(useBasicLandsMatchingCommander(CardVersionExtractor.getArenaCard(), ArenaDeckEntry::new, c -> c.getEdition().isFullArt()))
                 .addOutputTransformation(randomArenaReplacement(snowLandChoices())));
+
+        if (Arrays.asList(args).contains("--watch")) {
+            watcher.build().run();
+        }
     }
 
     private static final Comparator<Collection<ArenaDeckEntry>> ARBITRARY_GROUP_ORDER = new Comparator<>() {
@@ -506,9 +517,9 @@ public final class RyansMtgaDecks {
         }
     }
 
-    private static void generate(Spoiler spoiler, Path sourceDirectory,
+    private static void generate(Spoiler spoiler, DeckWatcher.Builder watcher, Path sourceDirectory,
                                  Consumer<DeckConstructor.Builder<ArenaCard, ArenaDeckEntry>> modifier)
-            throws IOException {
+            throws IOException, InterruptedException {
         DeckConstructor.Builder<ArenaCard, ArenaDeckEntry> builder = DeckConstructor.createForArena()
                 .withPreferenceOrder().override(Comparator.comparing((ArenaCard arenaCard) -> arenaCard.getEdition().getReleaseDate()))
                 .addDeckTransformation(CompanionLegality::extractCompanion);
@@ -522,30 +533,34 @@ public final class RyansMtgaDecks {
 
         stripMtgGoldfishPrefixes(sourceDirectory);
 
-        List<ArenaDeckSeeker.Entry> entries = new ArenaDeckSeeker(spoiler, deckConstructor)
-                .seek(sourceDirectory, destinationDirectory)
-                .collect(Collectors.toList());
-        for (ArenaDeckSeeker.Entry entry : entries) {
-            Path source = entry.getSource();
-            Path destination = entry.getDestination();
-            if (Files.exists(destination)) continue;
-
-            try {
-                Deck<Card> deck;
-                try (Reader reader = Files.newBufferedReader(source)) {
-                    deck = ArenaDeckFormatter.readDeck(spoiler, reader);
-                }
-                Deck<ArenaDeckEntry> arenaDeck = deckConstructor.createDeck(deck);
-                arenaDeck = arenaDeck.sortCards(ArenaDeckFormatter.orderArenaCards());
-                arenaDeck = ArenaDeckFormatter.prioritizeBestOfOneSideboard(arenaDeck);
-                try (Writer writer = Files.newBufferedWriter(destination)) {
-                    ArenaDeckFormatter.write(writer, arenaDeck);
-                }
-            } catch (Exception e) {
-                System.err.println("Error on " + entry.getSource());
-                e.printStackTrace();
+        DeckBuildPipeline.Builder<ArenaCard, ArenaDeckEntry> pipeline = new DeckBuildPipeline.Builder<>(
+                deckConstructor, (Path source, Consumer<? super String> unresolvedNames) -> {
+            Deck<ArenaDeckEntry> entries;
+            try (Reader reader = Files.newBufferedReader(source)) {
+                entries = ArenaDeckFormatter.readEntries(reader);
             }
-        }
+            return entries.flatTransform((ArenaDeckEntry entry) -> {
+                Optional<Card> card = spoiler.lookUpByName(entry.getCardName());
+                if (card.isEmpty()) {
+                    unresolvedNames.accept(entry.getCardName());
+                }
+                return card;
+            });
+        }, (OutputStream outputStream, Deck<ArenaDeckEntry> arenaDeck) -> {
+            arenaDeck = arenaDeck.sortCards(ArenaDeckFormatter.orderArenaCards());
+            arenaDeck = ArenaDeckFormatter.prioritizeBestOfOneSideboard(arenaDeck);
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            ArenaDeckFormatter.write(writer, arenaDeck);
+            writer.flush();
+        });
+        watcher.addTarget(sourceDirectory, pipeline.build(), (Path path) ->
+                path.getParent().equals(sourceDirectory.toAbsolutePath()) && path.getFileName().toString().endsWith(".txt")
+                        ? Optional.of(new DeckBuildPipeline.Job(path.getFileName().toString(), path,
+                        destinationDirectory.resolve(path.getFileName())))
+                        : Optional.empty());
+        DeckBuildPipeline.Report<ArenaDeckEntry> report = pipeline.skipExistingOutputs().build().run(DeckBuildPipeline.Job.fromArenaDeckSeeker(
+                new ArenaDeckSeeker(spoiler, deckConstructor).seek(sourceDirectory, destinationDirectory)));
+        report.printSummary(System.err);
     }
 
     private static void printVaultFillerDeck(Writer destination, Spoiler spoiler,
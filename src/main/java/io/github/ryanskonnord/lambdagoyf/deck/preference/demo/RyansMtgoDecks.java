@@ -31,6 +31,7 @@ import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
+import io.github.ryanskonnord.lambdagoyf.Environment;
 import io.github.ryanskonnord.lambdagoyf.card.Card;
 import io.github.ryanskonnord.lambdagoyf.card.CardEdition;
 import io.github.ryanskonnord.lambdagoyf.card.CardEditionFace;
@@ -40,6 +41,7 @@ import io.github.ryanskonnord.lambdagoyf.card.CardVersion;
 import io.github.ryanskonnord.lambdagoyf.card.CardVersionExtractor;
 import io.github.ryanskonnord.lambdagoyf.card.Color;
 import io.github.ryanskonnord.lambdagoyf.card.DeckElement;
+import io.github.ryanskonnord.lambdagoyf.card.EditionIndex;
 import io.github.ryanskonnord.lambdagoyf.card.Expansion;
 import io.github.ryanskonnord.lambdagoyf.card.MtgoCard;
 import io.github.ryanskonnord.lambdagoyf.card.Spoiler;
@@ -54,31 +56,33 @@ import io.github.ryanskonnord.lambdagoyf.card.field.FrameStyle;
 import io.github.ryanskonnord.lambdagoyf.card.field.Watermark;
 import io.github.ryanskonnord.lambdagoyf.deck.CompanionLegality;
 import io.github.ryanskonnord.lambdagoyf.deck.Deck;
+import io.github.ryanskonnord.lambdagoyf.deck.DeckBuildCache;
+import io.github.ryanskonnord.lambdagoyf.deck.DeckBuildPipeline;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckConstructor;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckRandomChoice;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckSeeker;
 import io.github.ryanskonnord.lambdagoyf.deck.DeckSeeker.DeckFileFormat;
+import io.github.ryanskonnord.lambdagoyf.deck.DeckWatcher;
 import io.github.ryanskonnord.lambdagoyf.deck.MtgoDeck;
 import io.github.ryanskonnord.lambdagoyf.deck.MtgoDeckFormatter;
 import io.github.ryanskonnord.lambdagoyf.deck.PreferenceBuilder;
 import io.github.ryanskonnord.lambdagoyf.deck.preference.BasicLandPreferenceSequence;
 import io.github.ryanskonnord.lambdagoyf.deck.preference.BasicLandReplacer;
 import io.github.ryanskonnord.lambdagoyf.deck.preference.GroupReplacementWithAvailability;
+import io.github.ryanskonnord.lambdagoyf.scryfall.ScryfallFetcher;
 import io.github.ryanskonnord.lambdagoyf.scryfall.ScryfallParser;
 import io.github.ryanskonnord.util.MapCollectors;
 import io.github.ryanskonnord.util.MultisetUtil;
 import io.github.ryanskonnord.util.OrderingUtil;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -90,6 +94,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
@@ -114,9 +119,10 @@ import static io.github.ryanskonnord.lambdagoyf.deck.preference.MtgoCardPreferen
 
 public final class RyansMtgoDecks {
 
+    private static final Path MY_COLLECTION = getDeckFilePath().resolve("Magic Online Collection.csv");
+
     private static Multiset<MtgoDeck.CardEntry> parseMyCollection(Spoiler spoiler) throws IOException {
-        Path myCollectionPath = getDeckFilePath().resolve("Magic Online Collection.csv");
-        try (Reader reader = Files.newBufferedReader(myCollectionPath)) {
+        try (Reader reader = Files.newBufferedReader(MY_COLLECTION)) {
             return MtgoDeckFormatter.parseCsv(spoiler, reader).asDeckObject().getAllCards();
         }
     }
@@ -201,9 +207,9 @@ public final class RyansMtgoDecks {
         return edition -> numberSet.contains(edition.getCollectorNumber().getNumber());
     }
 
-    private static Comparator<MtgoCard> orderForNormalReleases() {
+    private static Comparator<MtgoCard> orderForNormalReleases(EditionIndex editionIndex) {
         return onEditions(new PreferenceBuilder<CardEdition>()
-                .prefer(hasWatermark())
+                .prefer(hasWatermark(editionIndex))
                 .addRule(olderFirst())
                 .build());
     }
@@ -227,7 +233,7 @@ public final class RyansMtgoDecks {
     }
 
     public static Predicate<CardEdition> hasDebutIllustration() {
-        return hasDebutIllustration(e -> true);
+        return CardEdition::isIllustrationDebut;
     }
 
     public static Predicate<CardEdition> hasDebutIllustration(Predicate<CardEdition> editionsToConsider) {
@@ -339,7 +345,7 @@ public final class RyansMtgoDecks {
         return predicate.and(hasFinish(Finish.NONFOIL));
     }
 
-    private static Comparator<MtgoCard> modernPreference(DeckFormatDirectory format) {
+    private static Comparator<MtgoCard> modernPreference(DeckFormatDirectory format, EditionIndex editionIndex) {
         return new PreferenceBuilder<MtgoCard>()
                 .addRule(usingFavorites(format.getFavorites()))
                 .prefer(onEdition(hasArtist(ARTIST_BLACKLIST).negate()))
@@ -351,11 +357,11 @@ public final class RyansMtgoDecks {
                 .prefer(onEdition(c -> format == DeckFormatDirectory.PIONEER && c.getReleaseDate().compareTo(PIONEER_THRESHOLD) >= 0))
                 .prefer(onEdition(hasModernFrame()))
                 .prefer(onEdition(isExpansionType(ExpansionType.PROMO).negate()))
-                .prefer(onEdition(hasWatermark(w -> w.is(Watermark.SET))))
+                .prefer(onEdition(hasWatermark(editionIndex, Watermark.SET)))
                 .prefer(onEdition(hasIllustrationThatDebutedIn(isMastersExceptMastersEdition())))
                 .prefer(onEdition(hasArtist(FAVORITE_ARTISTS)))
                 .prefer(onEdition(isExpansionType(ExpansionType.MASTERS).negate()))
-                .preferWithRule(isInNormalReleasesOrMasters(), orderForNormalReleases())
+                .preferWithRule(isInNormalReleasesOrMasters(), orderForNormalReleases(editionIndex))
                 .addRule(onEditions(newerFirst()))
                 .build();
     }
@@ -369,7 +375,7 @@ public final class RyansMtgoDecks {
     }
 
 
-    private static Comparator<MtgoCard> eternalPreference(DeckFormatDirectory format) {
+    private static Comparator<MtgoCard> eternalPreference(DeckFormatDirectory format, EditionIndex editionIndex) {
         return new PreferenceBuilder<MtgoCard>()
                 .addRule(usingFavorites(format.getFavorites()))
                 .prefer(onEdition(hasArtist(ARTIST_BLACKLIST).negate()))
@@ -384,7 +390,7 @@ public final class RyansMtgoDecks {
                 .prefer(onEdition(hasIllustrationThatDebutedIn(isMastersExceptMastersEdition()
                         .or(expansion -> expansion.getType().is(ExpansionType.PROMO)))))
                 .prefer(hasFinish(Finish.FOIL).and(onEdition(hasModernFrame())))
-                .preferWithRule(isInNormalReleasesOrMasters(), orderForNormalReleases())
+                .preferWithRule(isInNormalReleasesOrMasters(), orderForNormalReleases(editionIndex))
                 .build();
     }
 
@@ -521,20 +527,23 @@ public final class RyansMtgoDecks {
             this.format = Objects.requireNonNull(format);
         }
 
-        public Multiset<Long> getFavorites() {
-            Path favoritesPath = getDeckFilePath().resolve(String.format("Favorite %s.dek",
+        private Path getFavoritesPath() {
+            return getDeckFilePath().resolve(String.format("Favorite %s.dek",
                     switch (this) {
                         case MODERN -> "Modern";
                         case PIONEER -> "Pioneer";
                         default -> "Eternal";
                     }));
-            return parseFavorites(favoritesPath);
         }
 
-        public Comparator<? super MtgoCard> getPreference() {
+        public Multiset<Long> getFavorites() {
+            return parseFavorites(getFavoritesPath());
+        }
+
+        public Comparator<? super MtgoCard> getPreference(EditionIndex editionIndex) {
             return switch (this) {
-                case LEGACY, VINTAGE -> eternalPreference(this);
-                default -> modernPreference(this);
+                case LEGACY, VINTAGE -> eternalPreference(this, editionIndex);
+                default -> modernPreference(this, editionIndex);
             };
         }
 
@@ -570,10 +579,7 @@ public final class RyansMtgoDecks {
     }
 
     private static final CardEdition findIllustrationDebut(CardEdition edition) {
-        CardIllustration illustration = edition.getIllustration();
-        return edition.getCard().getEditions().stream()
-                .filter(e -> e.getIllustration().equals(illustration))
-                .findFirst().orElseThrow();
+        return edition.getIllustrationDebut();
     }
 
     private static Function<Card, Stream<MtgoDeck.CardEntry>> getFallbackFunction(Multiset<MtgoDeck.CardEntry> collection) {
@@ -609,12 +615,30 @@ public final class RyansMtgoDecks {
         Path constructedDirectory = getDeckFilePath().resolve("Constructed");
         Path allDirectory = constructedDirectory.resolve("All");
         Files.createDirectories(allDirectory);
+        DeckBuildCache buildCache = DeckBuildCache.load(constructedDirectory.resolve("mtgo-build-cache.properties"));
+        DeckBuildCache.Inputs sharedInputs = DeckBuildCache.Inputs.empty()
+                .with("spoiler", DeckBuildCache.hashFile(ScryfallFetcher.getCurrentManifestPath(Environment.getScryfallResourcePath())))
+                .with("collection", DeckBuildCache.hashFile(MY_COLLECTION))
+                .with("configuration", DeckBuildCache.hashClasspathEntry(RyansMtgoDecks.class))
+                .with("deckDigest", DeckRandomChoice.getDigestScheme())
+                .with("winterCheer", winterCheer.isInSeason());
+        DeckWatcher.Builder watcher = new DeckWatcher.Builder().setAfterRebuild(() -> {
+            try {
+                buildCache.save();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
         for (DeckFormatDirectory directory : EnumSet.allOf(DeckFormatDirectory.class)) {
+            Path favoritesPath = directory.getFavoritesPath();
+            DeckBuildCache.Inputs inputs = sharedInputs
+                    .with("directory", directory.name())
+                    .with("favorites", Files.exists(favoritesPath) ? DeckBuildCache.hashFile(favoritesPath) : "");
             DeckConstructor<MtgoCard, MtgoDeck.CardEntry> deckConstructor = DeckConstructor.createForMtgo()
                     .setAvailableCollection(myCollection)
                     .withFallback(getFallbackFunction(myCollection))
 
-                    .withPreferenceOrder().override(directory.getPreference())
+                    .withPreferenceOrder().override(directory.getPreference(spoiler.getEditionIndex()))
                     .withOverflowOver().override(DEFAULT_OVERFLOW)
                     .addDeckTransformation(deck -> CompanionLegality.addMissingCompanion(spoiler, deck, directory.format))
 //                    .addDeckTransformation(snowConversion::convertWithFieldBluff)
@@ -637,28 +661,28 @@ public final class RyansMtgoDecks {
             Files.createDirectories(root);
             RyansMtgaDecks.stripMtgGoldfishPrefixes(root);
 
-            for (DeckSeeker.Entry deckEntry : DeckSeeker.seekAll(root, directory.formatTag)) {
-                if (!deckEntry.hasFile(DeckFileFormat.SOURCE) || deckEntry.hasFile(DeckFileFormat.DEK)) {
-                    continue;
+            DeckBuildPipeline<MtgoCard, MtgoDeck.CardEntry> pipeline = new DeckBuildPipeline.Builder<>(
+                    deckConstructor, (Path source, Consumer<? super String> unresolvedNames) -> {
+                Deck<String> deckWithCardNames;
+                try (Reader reader = Files.newBufferedReader(source)) {
+                    deckWithCardNames = MtgoDeckFormatter.parseTxt(reader);
                 }
-                try {
-                    Deck<String> deckWithCardNames;
-                    try (Reader reader = Files.newBufferedReader(deckEntry.getPath(DeckFileFormat.SOURCE))) {
-                        deckWithCardNames = MtgoDeckFormatter.parseTxt(reader);
-                    }
-                    Deck<Card> unversionedDeck = MtgoDeckFormatter.createDeckFromCardNames(spoiler, deckWithCardNames);
-                    Deck<MtgoDeck.CardEntry> versionedDeck = deckConstructor.createDeck(unversionedDeck);
-                    Path outputPath = deckEntry.getPath(DeckFileFormat.DEK);
-                    Files.createDirectories(outputPath.getParent());
-                    try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputPath))) {
-                        MtgoDeckFormatter.writeDek(outputStream, versionedDeck);
-                    }
-                    Files.copy(outputPath, allDirectory.resolve(outputPath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
-                } catch (Exception e) {
-                    System.err.println("\nError on deck file: " + deckEntry.getName());
-                    e.printStackTrace(System.err);
-                }
-            }
+                return MtgoDeckFormatter.createDeckFromCardNames(spoiler, deckWithCardNames, unresolvedNames);
+            }, MtgoDeckFormatter::writeDek)
+                    .setAvailableCollection(myCollection)
+                    .addMirrorDirectory(allDirectory)
+                    .setBuildCache(buildCache, inputs)
+                    .build();
+            DeckBuildPipeline.Report<MtgoDeck.CardEntry> report = pipeline.run(DeckBuildPipeline.Job.fromDeckSeeker(
+                    DeckSeeker.seekAll(root, directory.formatTag), DeckFileFormat.DEK));
+            buildCache.save();
+            report.printSummary(System.err);
+            watcher.addTarget(root, pipeline, (Path path) -> DeckSeeker.locateSource(path, directory.formatTag)
+                    .map(e -> DeckBuildPipeline.Job.fromDeckSeeker(e, DeckFileFormat.DEK)));
+        }
+
+        if (Arrays.asList(args).contains("--watch")) {
+            watcher.build().run();
         }
     }
 
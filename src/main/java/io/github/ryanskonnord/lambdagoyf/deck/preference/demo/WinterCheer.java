@@ -40,10 +40,13 @@ public final class WinterCheer {
         this.snowConversion = Objects.requireNonNull(snowConversion);
     }
 
+    public boolean isInSeason() {
+        return tisTheSeason(LocalDate.now(clock));
+    }
+
     public Deck<Card> convertSeasonally(Deck<Card> deck) {
         Objects.requireNonNull(deck);
-        LocalDate date = LocalDate.now(clock);
-        return tisTheSeason(date) ? snowConversion.convert(deck) : deck;
+        return isInSeason() ? snowConversion.convert(deck) : deck;
     }
 
     /**
@@ -137,8 +137,19 @@ public class ScryfallFetcher {
         log.ifPresent(ps -> ps.println(message));
     }
 
+    private static Path getCurrentDirectory(Path rootDirectory) {
+        return rootDirectory.resolve("current");
+    }
+
+    /**
+     * @return the manifest of the current download under a root directory, which identifies the data snapshot
+     */
+    public static Path getCurrentManifestPath(Path rootDirectory) {
+        return getCurrentDirectory(rootDirectory).resolve(MANIFEST_JSON);
+    }
+
     public Path refresh() throws IOException, InterruptedException {
-        Path current = rootDirectory.resolve("current");
+        Path current = getCurrentDirectory(rootDirectory);
         if (!Files.exists(current)) {
             Files.createDirectories(current);
             download(current);
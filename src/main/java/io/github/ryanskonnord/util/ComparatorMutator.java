@@ -24,14 +24,28 @@ import com.google.common.base.Preconditions;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 public final class ComparatorMutator<T, B> {
 
     private final B chainingObject;
+    private final BiFunction<Comparator<? super T>, Comparator<? super T>, Comparator<T>> combiner;
     private Comparator<T> state = null;
 
     public ComparatorMutator(B chainingObject) {
+        this(chainingObject, (Comparator<? super T> first, Comparator<? super T> second) -> {
+            Comparator<T> order = first::compare;
+            return order.thenComparing(second);
+        });
+    }
+
+    /**
+     * @param combiner combines two comparators into one that applies the second to break ties in the first
+     */
+    public ComparatorMutator(B chainingObject,
+                             BiFunction<Comparator<? super T>, Comparator<? super T>, Comparator<T>> combiner) {
         this.chainingObject = chainingObject;
+        this.combiner = Objects.requireNonNull(combiner);
     }
 
     public static <T> ComparatorMutator<T, Void> nonChaining() {
@@ -50,7 +64,7 @@ public final class ComparatorMutator<T, B> {
         if (state == null) {
             state = (Comparator<T>) comparator;
         } else {
-            state = ((Comparator<T>) comparator).thenComparing(state);
+            state = combiner.apply(comparator, state);
         }
         return chainingObject;
     }
@@ -60,7 +74,7 @@ public final class ComparatorMutator<T, B> {
         if (state == null) {
             state = (Comparator<T>) comparator;
         } else {
-            state = state.thenComparing(comparator);
+            state = combiner.apply(state, comparator);
         }
         return chainingObject;
     }
@@ -0,0 +1,254 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable set of ordinals drawn from {@code [0, universeSize)}.
+ * <p>
+ * A sparse set is stored as a sorted array of its members and a dense set as a bitmap, whichever is smaller, so that
+ * an index with many rarely used keys stays compact while the common keys still support fast intersections.
+ */
+public final class OrdinalSet {
+
+    private final int universeSize;
+    private final int size;
+    private final int[] members;
+    private final long[] words;
+
+    private OrdinalSet(int universeSize, int[] members) {
+        this.universeSize = universeSize;
+        this.size = members.length;
+        this.members = members;
+        this.words = null;
+    }
+
+    private OrdinalSet(int universeSize, long[] words, int size) {
+        this.universeSize = universeSize;
+        this.size = size;
+        this.members = null;
+        this.words = words;
+    }
+
+    private static boolean isDense(int universeSize, int size) {
+        return (long) size * Integer.SIZE > universeSize;
+    }
+
+    private static OrdinalSet fromSortedMembers(int universeSize, int[] members, int size) {
+        if (!isDense(universeSize, size)) {
+            return new OrdinalSet(universeSize, size == members.length ? members : Arrays.copyOf(members, size));
+        }
+        long[] words = new long[getWordCount(universeSize)];
+        for (int i = 0; i < size; i++) {
+            int member = members[i];
+            words[member >>> 6] |= 1L << member;
+        }
+        return new OrdinalSet(universeSize, words, size);
+    }
+
+    private static OrdinalSet fromWords(int universeSize, long[] words) {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        if (isDense(universeSize, size)) {
+            return new OrdinalSet(universeSize, words, size);
+        }
+        return new OrdinalSet(universeSize, BitSet.valueOf(words).stream().toArray());
+    }
+
+    private static int getWordCount(int universeSize) {
+        return (universeSize + Long.SIZE - 1) >>> 6;
+    }
+
+    public static OrdinalSet empty(int universeSize) {
+        return new OrdinalSet(universeSize, new int[0]);
+    }
+
+    public static OrdinalSet of(int universeSize, int... members) {
+        Builder builder = new Builder(universeSize);
+        for (int member : members) {
+            builder.add(member);
+        }
+        return builder.build();
+    }
+
+    public static final class Builder {
+        private final int universeSize;
+        private int[] members = new int[4];
+        private int size = 0;
+
+        public Builder(int universeSize) {
+            Preconditions.checkArgument(universeSize >= 0);
+            this.universeSize = universeSize;
+        }
+
+        public Builder add(int member) {
+            Preconditions.checkElementIndex(member, universeSize);
+            if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+            }
+            members[size++] = member;
+            return this;
+        }
+
+        public OrdinalSet build() {
+            int[] sorted = Arrays.copyOf(members, size);
+            Arrays.sort(sorted);
+            int distinctSize = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinctSize++] = sorted[i];
+                }
+            }
+            return fromSortedMembers(universeSize, sorted, distinctSize);
+        }
+    }
+
+    public int getUniverseSize() {
+        return universeSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int ordinal) {
+        if (ordinal < 0 || ordinal >= universeSize) return false;
+        return words != null
+                ? (words[ordinal >>> 6] & (1L << ordinal)) != 0
+                : Arrays.binarySearch(members, ordinal) >= 0;
+    }
+
+    public IntStream stream() {
+        return words != null ? BitSet.valueOf(words).stream() : Arrays.stream(members);
+    }
+
+    private long[] toWords() {
+        if (words != null) return words;
+        long[] result = new long[getWordCount(universeSize)];
+        for (int member : members) {
+            result[member >>> 6] |= 1L << member;
+        }
+        return result;
+    }
+
+    private void checkUniverse(OrdinalSet that) {
+        Preconditions.checkArgument(this.universeSize == that.universeSize, "Sets have different universes");
+    }
+
+    public OrdinalSet and(OrdinalSet that) {
+        checkUniverse(that);
+        if (this.members != null || that.members != null) {
+            OrdinalSet sparse = this.members != null ? this : that;
+            OrdinalSet other = sparse == this ? that : this;
+            int[] result = new int[sparse.size];
+            int size = 0;
+            for (int member : sparse.members) {
+                if (other.contains(member)) {
+                    result[size++] = member;
+                }
+            }
+            return fromSortedMembers(universeSize, result, size);
+        }
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.words[i] & that.words[i];
+        }
+        return fromWords(universeSize, result);
+    }
+
+    public OrdinalSet or(OrdinalSet that) {
+        checkUniverse(that);
+        if (this.members != null && that.members != null) {
+            int[] result = new int[this.size + that.size];
+            int i = 0, j = 0, size = 0;
+            while (i < this.size || j < that.size) {
+                int next;
+                if (j == that.size || i < this.size && this.members[i] < that.members[j]) {
+                    next = this.members[i++];
+                } else if (i == this.size || that.members[j] < this.members[i]) {
+                    next = that.members[j++];
+                } else {
+                    next = this.members[i++];
+                    j++;
+                }
+                result[size++] = next;
+            }
+            return fromSortedMembers(universeSize, result, size);
+        }
+        long[] thisWords = this.toWords();
+        long[] thatWords = that.toWords();
+        long[] result = new long[thisWords.length];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = thisWords[k] | thatWords[k];
+        }
+        return fromWords(universeSize, result);
+    }
+
+    public OrdinalSet andNot(OrdinalSet that) {
+        checkUniverse(that);
+        if (this.members != null) {
+            int[] result = new int[this.size];
+            int size = 0;
+            for (int member : this.members) {
+                if (!that.contains(member)) {
+                    result[size++] = member;
+                }
+            }
+            return fromSortedMembers(universeSize, result, size);
+        }
+        long[] thatWords = that.toWords();
+        long[] result = new long[words.length];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = words[k] & ~thatWords[k];
+        }
+        return fromWords(universeSize, result);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrdinalSet that = (OrdinalSet) o;
+        return universeSize == that.universeSize && size == that.size
+                && Arrays.equals(toWords(), that.toWords());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * universeSize + Arrays.hashCode(toWords());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(stream().toArray());
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf;
+
+import io.github.ryanskonnord.lambdagoyf.card.CardFactory;
+import io.github.ryanskonnord.lambdagoyf.card.Spoiler;
+import io.github.ryanskonnord.lambdagoyf.scryfall.ScryfallParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+
+/**
+ * Loads a small snapshot of Scryfall data from the test resources, in the same layout that {@link ScryfallParser}
+ * reads from a real download.
+ */
+public final class TestCardData {
+
+    private TestCardData() {
+        throw new AssertionError();
+    }
+
+    public static CardFactory createFactory() {
+        try {
+            Path directory = Path.of(TestCardData.class.getResource("/scryfall").toURI());
+            return new ScryfallParser().parseScryfallData(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return a new spoiler, none of whose lazily derived values have been computed yet
+     */
+    public static Spoiler createSpoiler() {
+        return createFactory().createSpoiler();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.assertEquals;
+
+public class CollectorNumberTest {
+
+    /*
+     * Padded zeros, such as "00a", are left out because their order differs, as noted in CollectorNumber.
+     */
+    private static final ImmutableList<String> COLLECTOR_STRINGS = ImmutableList.of(
+            "0", "1", "12", "13", "350", "351", "1000",
+            "0a", "01", "012", "0012", "12a", "12b", "012a", "012b", "0012a", "13a", "013a",
+            "12★", "012★", "0012★", "12s", "012s", "12p", "100p",
+            "A12", "A012", "A12a", "A012b", "S1", "S01a", "p100", "2XM1", "2XM01",
+            "abc", "abc0", "★");
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(?<prefix>\\d*[^\\d]+)?(?<number>\\d+)(?<suffix>.*?)");
+
+    /*
+     * The order of collector numbers before they were packed: by prefix, then number, then the whole string. Purely
+     * numeric strings were parsed to their canonical form.
+     */
+    private static final Comparator<String> LEGACY_ORDER = new Comparator<>() {
+        private String canonicalize(String collectorString) {
+            try {
+                return Integer.toString(Integer.parseInt(collectorString));
+            } catch (NumberFormatException e) {
+                return collectorString;
+            }
+        }
+
+        @Override
+        public int compare(String s1, String s2) {
+            String c1 = canonicalize(s1);
+            String c2 = canonicalize(s2);
+            Matcher m1 = NUMBER_PATTERN.matcher(c1);
+            Matcher m2 = NUMBER_PATTERN.matcher(c2);
+            boolean matches1 = m1.matches();
+            boolean matches2 = m2.matches();
+            String prefix1 = matches1 ? Strings.nullToEmpty(m1.group("prefix")) : c1;
+            String prefix2 = matches2 ? Strings.nullToEmpty(m2.group("prefix")) : c2;
+            int cmp = prefix1.compareTo(prefix2);
+            if (cmp != 0) return cmp;
+            int number1 = matches1 ? Integer.parseInt(m1.group("number")) : 0;
+            int number2 = matches2 ? Integer.parseInt(m2.group("number")) : 0;
+            cmp = Integer.compare(number1, number2);
+            if (cmp != 0) return cmp;
+            return c1.compareTo(c2);
+        }
+    };
+
+    @Test
+    public void testOrderMatchesLegacyOrder() {
+        ImmutableMap<String, CollectorNumber> interned = CollectorNumber.internAll(COLLECTOR_STRINGS);
+        for (String s1 : COLLECTOR_STRINGS) {
+            for (String s2 : COLLECTOR_STRINGS) {
+                int expected = Integer.signum(LEGACY_ORDER.compare(s1, s2));
+                String message = s1 + " <=> " + s2;
+                assertEquals(Integer.signum(interned.get(s1).compareTo(interned.get(s2))), expected, message);
+                assertEquals(Integer.signum(CollectorNumber.parse(s1).compareTo(CollectorNumber.parse(s2))), expected,
+                        message);
+                assertEquals(Integer.signum(interned.get(s1).compareTo(CollectorNumber.parse(s2))), expected, message);
+            }
+        }
+    }
+
+    @Test
+    public void testPaddedNumberWithSuffix() {
+        CollectorNumber padded = CollectorNumber.parse("012b");
+        CollectorNumber unpadded = CollectorNumber.parse("12a");
+        assertEquals(Integer.signum(padded.compareTo(unpadded)), -1);
+        ImmutableMap<String, CollectorNumber> interned = CollectorNumber.internAll(ImmutableList.of("012b", "12a"));
+        assertEquals(Integer.signum(interned.get("012b").compareTo(interned.get("12a"))), -1);
+    }
+
+    @Test
+    public void testEqualsAcrossDictionaries() {
+        ImmutableMap<String, CollectorNumber> interned = CollectorNumber.internAll(COLLECTOR_STRINGS);
+        for (String collectorString : COLLECTOR_STRINGS) {
+            CollectorNumber parsed = CollectorNumber.parse(collectorString);
+            CollectorNumber internedNumber = interned.get(collectorString);
+            assertEquals(parsed, internedNumber);
+            assertEquals(parsed.hashCode(), internedNumber.hashCode());
+            assertEquals(internedNumber.getCollectorString(), parsed.getCollectorString());
+        }
+    }
+
+}
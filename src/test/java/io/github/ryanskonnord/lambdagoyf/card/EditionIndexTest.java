@@ -0,0 +1,80 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.github.ryanskonnord.lambdagoyf.TestCardData;
+import io.github.ryanskonnord.util.OrdinalSet;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EditionIndexTest {
+
+    private final Spoiler spoiler = TestCardData.createSpoiler();
+    private final EditionIndex index = spoiler.getEditionIndex();
+    private final Card island = spoiler.lookUpByName("Island").orElseThrow();
+
+    private ImmutableList<CardEdition> getEditions(OrdinalSet set) {
+        return index.getEditions(set).collect(ImmutableList.toImmutableList());
+    }
+
+    @Test
+    public void testToSet() {
+        OrdinalSet islands = index.toSet(island.getEditions().stream());
+        assertEquals(islands.size(), island.getEditions().size());
+        assertEquals(getEditions(islands), island.getEditions());
+        assertTrue(index.toSet(island.getEditions().stream().limit(0)).isEmpty());
+    }
+
+    @Test
+    public void testMatchingWithinSet() {
+        OrdinalSet islands = index.toSet(island.getEditions().stream());
+        OrdinalSet fromM20 = index.matching(islands, e -> e.getExpansion().getProductCode().equals("M20"));
+        assertEquals(fromM20, islands.and(index.matching(e -> e.getExpansion().getProductCode().equals("M20"))));
+        assertEquals(getEditions(fromM20).stream().map(e -> e.getCollectorNumber().getCollectorString())
+                .collect(Collectors.toList()), ImmutableList.of("265", "266"));
+    }
+
+    @Test
+    public void testGroupByArtist() {
+        OrdinalSet islands = index.toSet(island.getEditions().stream());
+        ImmutableMap<String, OrdinalSet> groups = index.groupByArtist(islands);
+        assertEquals(groups.keySet().asList(), ImmutableList.of("Titus Lunter", "Cliff Childs", "Noah Bradley"));
+        for (Map.Entry<String, OrdinalSet> entry : groups.entrySet()) {
+            assertEquals(entry.getValue(), islands.and(index.withArtist(entry.getKey())));
+        }
+        assertEquals(groups.get("Titus Lunter").size(), 2);
+        assertTrue(index.groupByArtist(index.none()).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testToSetRejectsEditionsFromAnotherSpoiler() {
+        Card otherIsland = TestCardData.createSpoiler().lookUpByName("Island").orElseThrow();
+        index.toSet(otherIsland.getEditions().stream());
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.collect.ImmutableList;
+import io.github.ryanskonnord.lambdagoyf.TestCardData;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class FuzzyNameIndexTest {
+
+    private final Spoiler spoiler = TestCardData.createSpoiler();
+    private final FuzzyNameIndex index = FuzzyNameIndex.create(spoiler);
+
+    private Card getCard(String name) {
+        return spoiler.lookUpByName(name).orElseThrow();
+    }
+
+    private void assertSingleMatch(String query, String expectedName, int expectedDistance) {
+        ImmutableList<FuzzyNameIndex.Candidate> candidates = index.lookUp(query);
+        assertEquals(candidates.size(), 1, candidates.toString());
+        FuzzyNameIndex.Candidate candidate = candidates.get(0);
+        assertEquals(candidate.getCard(), getCard(expectedName));
+        assertEquals(candidate.getDistance(), expectedDistance);
+        assertEquals(index.lookUpBestMatch(query), Optional.of(getCard(expectedName)));
+    }
+
+    @Test
+    public void testExactMatch() {
+        assertSingleMatch("Lightning Bolt", "Lightning Bolt", 0);
+        assertSingleMatch("lightning bolt", "Lightning Bolt", 0);
+    }
+
+    @Test
+    public void testMisspellings() {
+        assertSingleMatch("Lightnig Bolt", "Lightning Bolt", 1);
+        assertSingleMatch("Lightning Boltt", "Lightning Bolt", 1);
+        assertSingleMatch("Llanowar Elfs", "Llanowar Elves", 2);
+        assertSingleMatch("Ilsand", "Island", 1);
+    }
+
+    @Test
+    public void testTranspositions() {
+        assertSingleMatch("Lihgtning Bolt", "Lightning Bolt", 1);
+        assertSingleMatch("Llanowar Elevs", "Llanowar Elves", 1);
+        assertSingleMatch("Otp", "Opt", 1);
+    }
+
+    @Test
+    public void testShortNames() {
+        assertSingleMatch("Opt", "Opt", 0);
+        assertSingleMatch("Op", "Opt", 1);
+        assertSingleMatch("Shok", "Shock", 1);
+        assertTrue(index.lookUp("Xyz").isEmpty());
+
+        // Five letters only tolerate one edit
+        assertTrue(index.lookUp("Shcok").stream().allMatch(c -> c.getDistance() <= 1));
+        assertTrue(index.lookUp("Shaak").isEmpty());
+        assertEquals(index.lookUp("Shaak", 0), ImmutableList.of());
+    }
+
+    @Test
+    public void testMaxDistance() {
+        assertTrue(index.lookUp("Lightnig Bolt", 0).isEmpty());
+        assertEquals(index.lookUp("Lightnig Bolt", 1).size(), 1);
+        assertTrue(index.lookUp("Llanowar Elfs", 1).isEmpty());
+    }
+
+    @Test
+    public void testTiesInBestMatch() {
+        ImmutableList<FuzzyNameIndex.Candidate> candidates = index.lookUp("Ost");
+        assertEquals(candidates.size(), 2, candidates.toString());
+        assertEquals(candidates.get(0).getDistance(), 1);
+        assertEquals(candidates.get(1).getDistance(), 1);
+        assertEquals(index.lookUpBestMatch("Ost"), Optional.empty());
+
+        // A closer match breaks the tie
+        assertEquals(index.lookUpBestMatch("Oust"), Optional.of(getCard("Oust")));
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertTrue(index.lookUp("").isEmpty());
+        assertTrue(index.lookUp("Counterspell").isEmpty());
+        assertEquals(index.lookUpBestMatch("Counterspell"), Optional.empty());
+    }
+
+}
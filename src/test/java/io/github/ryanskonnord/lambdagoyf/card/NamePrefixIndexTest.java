@@ -0,0 +1,91 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.collect.ImmutableList;
+import io.github.ryanskonnord.lambdagoyf.TestCardData;
+import org.testng.annotations.Test;
+
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class NamePrefixIndexTest {
+
+    private final Spoiler spoiler = TestCardData.createSpoiler();
+    private final NamePrefixIndex index = NamePrefixIndex.create(spoiler);
+
+    private ImmutableList<Card> getCards(String... names) {
+        return Stream.of(names)
+                .map(name -> spoiler.lookUpByName(name).orElseThrow())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @Test
+    public void testEmptyPrefix() {
+        assertEquals(index.complete("", 10),
+                getCards("Llanowar Elves", "Lightning Bolt", "Oust", "Opt", "Shock", "Island"));
+    }
+
+    @Test
+    public void testOrderByEdhrecRank() {
+        assertEquals(index.complete("l", 10), getCards("Llanowar Elves", "Lightning Bolt"));
+        assertEquals(index.complete("o", 10), getCards("Oust", "Opt"));
+        assertEquals(index.complete("LIGHT", 10), getCards("Lightning Bolt"));
+    }
+
+    @Test
+    public void testCustomRank() {
+        NamePrefixIndex byName = NamePrefixIndex.create(spoiler, Comparator.comparing(Card::getMainName));
+        assertEquals(byName.complete("l", 10), getCards("Lightning Bolt", "Llanowar Elves"));
+        assertEquals(byName.complete("", 2), getCards("Island", "Lightning Bolt"));
+    }
+
+    @Test
+    public void testLimitSmallerThanMatches() {
+        assertEquals(index.complete("", 3), getCards("Llanowar Elves", "Lightning Bolt", "Oust"));
+        assertEquals(index.complete("l", 1), getCards("Llanowar Elves"));
+        assertEquals(index.complete("o", 1), getCards("Oust"));
+        assertTrue(index.complete("l", 0).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        index.complete("l", -1);
+    }
+
+    @Test
+    public void testPrefixLongerThanName() {
+        assertEquals(index.complete("opt", 10), getCards("Opt"));
+        assertTrue(index.complete("optx", 10).isEmpty());
+        assertTrue(index.complete("shocks", 10).isEmpty());
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertTrue(index.complete("bolt", 10).isEmpty());
+        assertTrue(index.complete("zzz", 10).isEmpty());
+        assertTrue(index.complete("a", 10).isEmpty());
+    }
+
+}
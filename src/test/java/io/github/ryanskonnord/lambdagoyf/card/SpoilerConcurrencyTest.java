@@ -0,0 +1,161 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ryanskonnord.lambdagoyf.card;
+
+import com.google.common.collect.ImmutableList;
+import io.github.ryanskonnord.lambdagoyf.TestCardData;
+import io.github.ryanskonnord.lambdagoyf.deck.ArenaDeckEntry;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Hammers the lazily derived values of a freshly built spoiler from many threads at once, so that each value's first
+ * computation races against the others.
+ */
+public class SpoilerConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    /*
+     * Everything one thread observed about a spoiler, for comparison with what the other threads observed.
+     */
+    private static final class Observation {
+        private final List<ArenaDeckEntry> deckEntries = new ArrayList<>();
+        private final List<ArenaCard> arenaLookups = new ArrayList<>();
+        private final List<ImmutableList<CardEditionFace>> faceEditions = new ArrayList<>();
+        private EditionIndex editionIndex;
+        private List<CardEdition> sortedEditions;
+        private List<Card> sortedCards;
+    }
+
+    private static Observation observe(Spoiler spoiler, long seed) {
+        Observation observation = new Observation();
+        for (Card card : spoiler.getCardsByOrdinal()) {
+            for (CardEdition edition : card.getEditions()) {
+                edition.getArenaCard().ifPresent((ArenaCard arenaCard) -> {
+                    ArenaDeckEntry entry = arenaCard.getDeckEntry();
+                    observation.deckEntries.add(entry);
+                    observation.arenaLookups.add(spoiler.lookUpByArenaDeckEntry(entry).orElseThrow());
+                });
+            }
+            for (CardFace face : card.getFaces()) {
+                observation.faceEditions.add(face.getEditions());
+            }
+        }
+        observation.editionIndex = spoiler.getEditionIndex();
+
+        Random random = new Random(seed);
+        List<CardEdition> editions = new ArrayList<>();
+        List<Card> cards = new ArrayList<>(spoiler.getCardsByOrdinal());
+        cards.forEach(card -> editions.addAll(card.getEditions()));
+        Collections.shuffle(editions, random);
+        Collections.shuffle(cards, random);
+        Collections.sort(editions);
+        Collections.sort(cards);
+        observation.sortedEditions = editions;
+        observation.sortedCards = cards;
+        return observation;
+    }
+
+    /*
+     * Run each task on its own thread, releasing them all at once.
+     */
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(tasks.size());
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return task.call();
+                }));
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> void assertAllSame(List<T> expected, List<T> actual) {
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(actual.get(i), expected.get(i));
+        }
+    }
+
+    private static List<Observation> observeConcurrently(Spoiler spoiler, Random seeds) throws Exception {
+        List<Callable<Observation>> tasks = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            long seed = seeds.nextLong();
+            tasks.add(() -> observe(spoiler, seed));
+        }
+        return runConcurrently(tasks);
+    }
+
+    @Test
+    public void testConcurrentFirstAccess() throws Exception {
+        Random seeds = new Random(0x1bd2L);
+        for (int round = 0; round < ROUNDS; round++) {
+            Spoiler spoiler = TestCardData.createSpoiler();
+            List<Observation> observations = observeConcurrently(spoiler, seeds);
+
+            Observation first = observations.get(0);
+            assertFalse(first.deckEntries.isEmpty());
+            for (Observation observation : observations) {
+                assertAllSame(first.deckEntries, observation.deckEntries);
+                assertAllSame(first.arenaLookups, observation.arenaLookups);
+                assertAllSame(first.faceEditions, observation.faceEditions);
+                assertSame(observation.editionIndex, first.editionIndex);
+                assertEquals(observation.sortedEditions, first.sortedEditions);
+                assertEquals(observation.sortedCards, spoiler.getCardsByOrdinal());
+            }
+        }
+    }
+
+    @Test
+    public void testSortKeysMatchOrdinals() throws Exception {
+        Spoiler spoiler = TestCardData.createSpoiler();
+        List<Observation> observations = observeConcurrently(spoiler, new Random(0x7e11L));
+        for (Observation observation : observations) {
+            for (int i = 0; i < observation.sortedEditions.size(); i++) {
+                assertSame(observation.sortedEditions.get(i), spoiler.getEditionByOrdinal(i));
+            }
+        }
+    }
+}
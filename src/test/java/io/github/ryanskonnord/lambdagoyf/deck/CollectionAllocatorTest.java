@@ -0,0 +1,135 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.lambdagoyf.deck;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import io.github.ryanskonnord.lambdagoyf.TestCardData;
+import io.github.ryanskonnord.lambdagoyf.card.Card;
+import io.github.ryanskonnord.lambdagoyf.card.MtgoCard;
+import io.github.ryanskonnord.lambdagoyf.card.Spoiler;
+import io.github.ryanskonnord.lambdagoyf.card.field.Finish;
+import org.testng.annotations.Test;
+
+import java.util.function.UnaryOperator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class CollectionAllocatorTest {
+
+    private final Spoiler spoiler = TestCardData.createSpoiler();
+    private final Card shock = spoiler.lookUpByName("Shock").orElseThrow();
+
+    /*
+     * Shock's MTGO versions in the default order of preference are 2XM, then M20, then M19.
+     */
+    private MtgoDeck.CardEntry getShock(String productCode) {
+        MtgoCard version = shock.getEditions().stream()
+                .filter(edition -> edition.getExpansion().getProductCode().equals(productCode))
+                .flatMap(edition -> edition.getMtgoCard(Finish.NONFOIL).stream())
+                .findAny().orElseThrow();
+        return new MtgoDeck.CardEntry(version);
+    }
+
+    private static Deck<Card> createDeck(Card card, int copies) {
+        return new Deck.Builder<Card>().addTo(Deck.Section.MAIN_DECK, card, copies).build();
+    }
+
+    private static Deck<MtgoDeck.CardEntry> createDeck(MtgoDeck.CardEntry entry, int copies) {
+        return new Deck.Builder<MtgoDeck.CardEntry>().addTo(Deck.Section.MAIN_DECK, entry, copies).build();
+    }
+
+    @Test
+    public void testCopiesAreNotSharedBetweenDecks() {
+        MtgoDeck.CardEntry shock2xm = getShock("2XM");
+        MtgoDeck.CardEntry shockM20 = getShock("M20");
+        ImmutableMultiset<MtgoDeck.CardEntry> collection = ImmutableMultiset.<MtgoDeck.CardEntry>builder()
+                .addCopies(shock2xm, 4).addCopies(shockM20, 4).build();
+        CollectionAllocator.Allocation<MtgoDeck.CardEntry> allocation =
+                new CollectionAllocator<>(DeckConstructor.createForMtgo().build(), collection)
+                        .allocate(ImmutableList.of(createDeck(shock, 4), createDeck(shock, 4)));
+
+        assertEquals(allocation.getDecks(), ImmutableList.of(createDeck(shock2xm, 4), createDeck(shockM20, 4)));
+        assertFalse(allocation.hasShortages());
+        assertTrue(allocation.getUnallocated().isEmpty());
+    }
+
+    @Test
+    public void testShortagesAndUnallocatedCopies() {
+        MtgoDeck.CardEntry shock2xm = getShock("2XM");
+        MtgoDeck.CardEntry shockM19 = getShock("M19");
+        ImmutableMultiset<MtgoDeck.CardEntry> collection = ImmutableMultiset.<MtgoDeck.CardEntry>builder()
+                .addCopies(shock2xm, 2).addCopies(shockM19, 3).build();
+        CollectionAllocator.Allocation<MtgoDeck.CardEntry> allocation =
+                new CollectionAllocator<>(DeckConstructor.createForMtgo().build(), collection)
+                        .allocate(ImmutableList.of(createDeck(shock, 3), createDeck(shock, 4)));
+
+        assertEquals(allocation.getDecks().get(0), createDeck(shockM19, 3));
+        assertEquals(allocation.getDecks().get(1), createDeck(shock2xm, 4));
+        assertEquals(allocation.getShortages(),
+                ImmutableList.of(ImmutableMultiset.of(), ImmutableMultiset.of(shock2xm, shock2xm)));
+        assertEquals(allocation.getTotalShortage(), ImmutableMultiset.of(shock2xm, shock2xm));
+        assertTrue(allocation.getUnallocated().isEmpty());
+
+        CollectionAllocator.Allocation<MtgoDeck.CardEntry> smallAllocation =
+                new CollectionAllocator<>(DeckConstructor.createForMtgo().build(), collection)
+                        .allocate(ImmutableList.of(createDeck(shock, 2)));
+        assertFalse(smallAllocation.hasShortages());
+        assertEquals(smallAllocation.getUnallocated(), ImmutableMultiset.of(shockM19, shockM19, shockM19));
+    }
+
+    @Test
+    public void testEarlierDecksHavePriority() {
+        MtgoDeck.CardEntry shock2xm = getShock("2XM");
+        MtgoDeck.CardEntry shockM20 = getShock("M20");
+        MtgoDeck.CardEntry shockM19 = getShock("M19");
+        ImmutableMultiset<MtgoDeck.CardEntry> collection = ImmutableMultiset.<MtgoDeck.CardEntry>builder()
+                .addCopies(shock2xm, 4).addCopies(shockM20, 2).addCopies(shockM19, 4).build();
+        CollectionAllocator.Allocation<MtgoDeck.CardEntry> allocation =
+                new CollectionAllocator<>(DeckConstructor.createForMtgo().build(), collection)
+                        .allocate(ImmutableList.of(createDeck(shock, 2), createDeck(shock, 4)));
+
+        assertEquals(allocation.getDecks(), ImmutableList.of(createDeck(shock2xm, 2), createDeck(shockM19, 4)));
+        assertEquals(allocation.getUnallocated(), ImmutableMultiset.of(shock2xm, shock2xm, shockM20, shockM20));
+    }
+
+    @Test
+    public void testLedgerIsChargedWithChosenVersions() {
+        MtgoDeck.CardEntry shock2xm = getShock("2XM");
+        MtgoDeck.CardEntry shockM20 = getShock("M20");
+        ImmutableMultiset<MtgoDeck.CardEntry> collection = ImmutableMultiset.<MtgoDeck.CardEntry>builder()
+                .addCopies(shock2xm, 4).addCopies(shockM20, 4).build();
+        UnaryOperator<Deck<MtgoDeck.CardEntry>> replace2xm =
+                deck -> deck.transform(entry -> entry.equals(shock2xm) ? shockM20 : entry);
+        DeckConstructor<MtgoCard, MtgoDeck.CardEntry> deckConstructor = DeckConstructor.createForMtgo()
+                .addOutputTransformation(replace2xm)
+                .build();
+        CollectionAllocator.Allocation<MtgoDeck.CardEntry> allocation = new CollectionAllocator<>(deckConstructor, collection)
+                .allocate(ImmutableList.of(createDeck(shock, 4), createDeck(shock, 4)));
+
+        assertEquals(allocation.getDecks(), ImmutableList.of(createDeck(shockM20, 4), createDeck(shockM20, 4)));
+        assertFalse(allocation.hasShortages());
+        assertTrue(allocation.getUnallocated().isEmpty());
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Lambdagoyf: A Software Suite for MTG Hobbyists
+ * https://github.com/RyanSkonnord/lambdagoyf
+ *
+ * Copyright 2024 Ryan Skonnord
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ryanskonnord.util;
+
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class OrdinalSetTest {
+
+    /*
+     * Not a multiple of 64, so that the last word of a bitmap is partly outside the universe. A set is stored densely
+     * once it has more than UNIVERSE / 32 members.
+     */
+    private static final int UNIVERSE = 1000;
+    private static final int[] SIZES = {0, 1, 5, UNIVERSE / 32, UNIVERSE / 32 + 1, 100, 500, UNIVERSE};
+
+    private static BitSet randomBits(Random random, int size) {
+        BitSet bits = new BitSet(UNIVERSE);
+        while (bits.cardinality() < size) {
+            bits.set(random.nextInt(UNIVERSE));
+        }
+        return bits;
+    }
+
+    private static OrdinalSet toOrdinalSet(BitSet bits) {
+        return OrdinalSet.of(UNIVERSE, bits.stream().toArray());
+    }
+
+    private static void assertSameMembers(OrdinalSet actual, BitSet expected) {
+        assertEquals(actual.getUniverseSize(), UNIVERSE);
+        assertEquals(actual.size(), expected.cardinality());
+        assertEquals(actual.isEmpty(), expected.isEmpty());
+        assertEquals(actual.stream().toArray(), expected.stream().toArray());
+        for (int i = 0; i < UNIVERSE; i++) {
+            assertEquals(actual.contains(i), expected.get(i));
+        }
+        assertEquals(actual, toOrdinalSet(expected));
+        assertEquals(actual.hashCode(), toOrdinalSet(expected).hashCode());
+    }
+
+    private static void checkOperation(BinaryOperator<OrdinalSet> operation, BinaryOperator<BitSet> expected) {
+        Random random = new Random(0x5e7L);
+        for (int size1 : SIZES) {
+            for (int size2 : SIZES) {
+                BitSet bits1 = randomBits(random, size1);
+                BitSet bits2 = randomBits(random, size2);
+                OrdinalSet result = operation.apply(toOrdinalSet(bits1), toOrdinalSet(bits2));
+                assertSameMembers(result, expected.apply((BitSet) bits1.clone(), (BitSet) bits2.clone()));
+            }
+        }
+    }
+
+    @Test
+    public void testAnd() {
+        checkOperation(OrdinalSet::and, (a, b) -> {
+            a.and(b);
+            return a;
+        });
+    }
+
+    @Test
+    public void testOr() {
+        checkOperation(OrdinalSet::or, (a, b) -> {
+            a.or(b);
+            return a;
+        });
+    }
+
+    @Test
+    public void testAndNot() {
+        checkOperation(OrdinalSet::andNot, (a, b) -> {
+            a.andNot(b);
+            return a;
+        });
+    }
+
+    @Test
+    public void testOverlappingSets() {
+        BitSet evens = new BitSet(UNIVERSE);
+        BitSet lowEvens = new BitSet(UNIVERSE);
+        for (int i = 0; i < UNIVERSE; i += 2) {
+            evens.set(i);
+            if (i < 40) lowEvens.set(i);
+        }
+        OrdinalSet dense = toOrdinalSet(evens);
+        OrdinalSet sparse = toOrdinalSet(lowEvens);
+        assertSameMembers(dense.and(sparse), lowEvens);
+        assertSameMembers(sparse.and(dense), lowEvens);
+        assertSameMembers(dense.or(sparse), evens);
+        assertSameMembers(sparse.or(dense), evens);
+        assertSameMembers(sparse.andNot(dense), new BitSet());
+        BitSet highEvens = (BitSet) evens.clone();
+        highEvens.andNot(lowEvens);
+        assertSameMembers(dense.andNot(sparse), highEvens);
+    }
+
+    @Test
+    public void testBuilder() {
+        OrdinalSet set = new OrdinalSet.Builder(UNIVERSE).add(7).add(3).add(7).add(UNIVERSE - 1).build();
+        assertEquals(set.stream().toArray(), new int[]{3, 7, UNIVERSE - 1});
+        assertFalse(set.contains(-1));
+        assertFalse(set.contains(UNIVERSE));
+        assertTrue(OrdinalSet.empty(UNIVERSE).isEmpty());
+        assertEquals(OrdinalSet.empty(UNIVERSE), OrdinalSet.of(UNIVERSE));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testBuilderRejectsOutOfRange() {
+        new OrdinalSet.Builder(UNIVERSE).add(UNIVERSE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDifferentUniverses() {
+        OrdinalSet.of(UNIVERSE, 1).and(OrdinalSet.of(UNIVERSE + 1, 1));
+    }
+
+}